@@ -0,0 +1,33 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class runs the JMH benchmarks and writes the results as JSON, so that
+ * runs from different releases can be compared by regression-tracking tools.
+ *
+ * Usage:
+ * - {@code java -jar benchmarks/target/benchmarks.jar} runs every benchmark into {@code jmh-results.json}.
+ * - {@code java -jar benchmarks/target/benchmarks.jar <regex> [results.json]} runs the matching benchmarks only.
+ * - For the full JMH command line (profilers, custom forks...) use {@code org.openjdk.jmh.Main} from the same jar.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String output = args.length > 1 ? args[1] : "jmh-results.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import def.DigitSumEngine;
+import def.RecursiveSumOfDigits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Bulk digit-sum throughput: per-number time of the recursive method against the table-driven
+ * bulk kernels, plus the streaming engine over a large digit text and the digit-DP range query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DigitSumBenchmark {
+
+    private static final int COUNT = 1_000_000;
+    private static final int TEXT_DIGITS = 16 << 20;
+
+    @Param({"uniform", "small"})
+    public String values;
+
+    private long[] numbers;
+    private int[] sums;
+    private String text;
+    private long rangeFrom;
+    private long rangeTo;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = new long[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            numbers[i] = values.equals("uniform") ? random.nextLong() : random.nextInt(1_000_000);
+        }
+        sums = new int[COUNT];
+        StringBuilder builder = new StringBuilder(TEXT_DIGITS);
+        for (int i = 0; i < TEXT_DIGITS; i++) {
+            builder.append((char) ('0' + random.nextInt(10)));
+        }
+        text = builder.toString();
+        rangeFrom = Math.min(numbers[0], numbers[1]);
+        rangeTo = Math.max(numbers[0], numbers[1]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int[] recursive() {
+        for (int i = 0; i < COUNT; i++) {
+            sums[i] = RecursiveSumOfDigits.sumOfDigits(numbers[i]);
+        }
+        return sums;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int[] bulk() {
+        RecursiveSumOfDigits.sumOfDigits(numbers, sums);
+        return sums;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int[] bulkParallel() {
+        RecursiveSumOfDigits.sumOfDigitsParallel(numbers, sums);
+        return sums;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long stream() {
+        return RecursiveSumOfDigits.sumOfDigits(LongStream.of(numbers)).asLongStream().sum();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXT_DIGITS)
+    public long engineText() {
+        return DigitSumEngine.sum(text, DigitSumEngine.NonDigitPolicy.SKIP).sum();
+    }
+
+    @Benchmark
+    public BigInteger rangeQuery() {
+        return RecursiveSumOfDigits.sumOfDigitsInRange(rangeFrom, rangeTo);
+    }
+}
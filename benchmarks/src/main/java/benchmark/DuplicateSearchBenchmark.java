@@ -0,0 +1,67 @@
+package benchmark;
+
+import def.RecursiveBinarySearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding every occurrence of a key in duplicate-heavy arrays: one million elements spread
+ * over few or many distinct keys, so each key repeats from a million times down to a hundred.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuplicateSearchBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    @Param({"1", "100", "10000"})
+    public int distinctKeys;
+
+    private int[] sorted;
+    private int target;
+
+    @Setup
+    public void setUp() {
+        sorted = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            sorted[i] = (int) ((long) i * distinctKeys / SIZE);
+        }
+        target = distinctKeys / 2;
+    }
+
+    @Benchmark
+    public List<Integer> allIndicesList() {
+        return RecursiveBinarySearch.binarySearchAllIndices(sorted, target, 0, sorted.length - 1);
+    }
+
+    @Benchmark
+    public int[] allIndicesArray() {
+        return RecursiveBinarySearch.allIndices(sorted, target);
+    }
+
+    @Benchmark
+    public int count() {
+        return RecursiveBinarySearch.count(sorted, target);
+    }
+
+    @Benchmark
+    public long equalRange() {
+        return RecursiveBinarySearch.equalRange(sorted, target);
+    }
+}
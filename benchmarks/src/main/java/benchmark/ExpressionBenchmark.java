@@ -0,0 +1,97 @@
+package benchmark;
+
+import def.CompiledExpression;
+import def.ExpressionCache;
+import def.RecursiveExpressionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser and evaluator cost as a function of expression length (number of terms of a flat
+ * expression) and of nesting depth (parentheses around a single term).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+public class ExpressionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Length {
+        @Param({"10", "100", "1000", "10000"})
+        public int terms;
+
+        public String expression;
+        public CompiledExpression compiled;
+        public ExpressionCache cache;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            StringBuilder builder = new StringBuilder();
+            builder.append(1 + random.nextInt(99));
+            for (int i = 1; i < terms; i++) {
+                builder.append(" +-*".charAt(1 + random.nextInt(3))).append(1 + random.nextInt(99));
+            }
+            expression = builder.toString();
+            compiled = RecursiveExpressionParser.compile(expression);
+            cache = new ExpressionCache(16);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Depth {
+        @Param({"1", "16", "256", "4096"})
+        public int depth;
+
+        public String expression;
+
+        @Setup
+        public void setUp() {
+            expression = "(".repeat(depth) + "1+2" + ")*3".repeat(depth);
+        }
+    }
+
+    @Benchmark
+    public double parseAndEvaluate(Length state) {
+        return RecursiveExpressionParser.evaluateExpression(state.expression);
+    }
+
+    @Benchmark
+    public double parseAndEvaluateIterative(Length state) {
+        return RecursiveExpressionParser.evaluateExpressionIterative(state.expression);
+    }
+
+    @Benchmark
+    public double evaluateCompiled(Length state) {
+        return state.compiled.evaluate();
+    }
+
+    @Benchmark
+    public double evaluateCached(Length state) {
+        return RecursiveExpressionParser.evaluateExpression(state.expression, state.cache);
+    }
+
+    @Benchmark
+    public double nestedParseAndEvaluate(Depth state) {
+        return RecursiveExpressionParser.evaluateExpression(state.expression);
+    }
+
+    @Benchmark
+    public double nestedParseAndEvaluateIterative(Depth state) {
+        return RecursiveExpressionParser.evaluateExpressionIterative(state.expression);
+    }
+}
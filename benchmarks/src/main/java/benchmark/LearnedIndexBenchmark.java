@@ -0,0 +1,83 @@
+package benchmark;
+
+import def.BinarySearchKernels;
+import def.LearnedSortedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The learned index against a plain binary search over long keys, for a uniform distribution
+ * (timestamps), a skewed one (exponential) and an adversarial one (gaps over many orders of magnitude).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class LearnedIndexBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"uniform", "skewed", "adversarial"})
+    public String distribution;
+
+    private long[] sorted;
+    private long[] queries;
+    private LearnedSortedIndex learned;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        sorted = new long[size];
+        long key = 1_700_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            switch (distribution) {
+                case "uniform" -> key += 900 + random.nextInt(200);
+                case "skewed" -> key = (long) Math.exp(random.nextDouble() * 40);
+                default -> key += 1L << random.nextInt(40);
+            }
+            sorted[i] = key;
+        }
+        Arrays.sort(sorted);
+        queries = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = sorted[random.nextInt(size)] + (random.nextBoolean() ? 0 : 1);
+        }
+        learned = LearnedSortedIndex.of(sorted);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void learnedIndex(Blackhole blackhole) {
+        for (long query : queries) {
+            blackhole.consume(learned.lowerBound(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void binarySearch(Blackhole blackhole) {
+        for (long query : queries) {
+            blackhole.consume(BinarySearchKernels.lowerBound(sorted, query));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import def.BatchSearch;
+import def.BinarySearchKernels;
+import def.RecursiveBinarySearch;
+import def.StaticSortedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-key lookup cost over sorted int arrays from 1K to 100M elements, for several hit
+ * ratios. Keys are the even numbers 0, 2, 4, ...; hits query even numbers and misses odd ones.
+ * Each invocation runs a fixed batch of random queries, so the array is not in a warm cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"1.0", "0.5", "0.0"})
+    public double hitRatio;
+
+    private int[] sorted;
+    private int[] queries;
+    private int[] results;
+    private StaticSortedIndex.OfInt eytzinger;
+
+    @Setup
+    public void setUp() {
+        sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = 2 * i;
+        }
+        Random random = new Random(42);
+        queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int key = 2 * random.nextInt(size);
+            queries[i] = random.nextDouble() < hitRatio ? key : key + 1;
+        }
+        results = new int[QUERIES];
+        eytzinger = StaticSortedIndex.of(sorted);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void recursive(Blackhole blackhole) {
+        for (int query : queries) {
+            blackhole.consume(RecursiveBinarySearch.binarySearchRecursive(sorted, query, 0, sorted.length - 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void jdkArrays(Blackhole blackhole) {
+        for (int query : queries) {
+            blackhole.consume(Arrays.binarySearch(sorted, query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void branchlessKernel(Blackhole blackhole) {
+        for (int query : queries) {
+            blackhole.consume(BinarySearchKernels.lowerBound(sorted, query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void eytzingerIndex(Blackhole blackhole) {
+        for (int query : queries) {
+            blackhole.consume(eytzinger.indexOf(query));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int[] batchInterleaved() {
+        BatchSearch.searchAll(sorted, queries, results);
+        return results;
+    }
+}
@@ -0,0 +1,280 @@
+package def;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The BatchEvaluator class evaluates one {@link CompiledExpression} over many rows at once.
+ * Every variable is supplied as a {@code double[]} column and the results are written to
+ * a {@code double[]} output column.
+ *
+ * Features:
+ * - Rows are processed in cache-sized blocks; within a block each instruction is applied
+ *   to the whole block in one tight primitive loop, which the JIT can auto-vectorise.
+ * - No boxing and no per-row allocation.
+ * - Optional fork-join parallelism that splits the rows across cores.
+ * - A configurable policy for division by zero (see {@link DivisionByZeroPolicy}).
+ *
+ * Note:
+ * - Columns are indexed like the arguments of {@link CompiledExpression#evaluate(double...)},
+ *   i.e. {@code columns[expression.variableIndex("x")]} holds the values of {@code x}.
+ */
+public final class BatchEvaluator {
+
+    /**
+     * What to do when a row divides by zero.
+     */
+    public enum DivisionByZeroPolicy {
+        /** Throw an {@link ArithmeticException} naming the offending row. */
+        THROW,
+        /** Write NaN for the offending row and keep going; the number of such rows is returned. */
+        NAN
+    }
+
+    // Rows per block: small enough that a block of every stack slot stays in L1/L2
+    private static final int BLOCK_SIZE = 1024;
+
+    // Rows per fork-join leaf task
+    private static final int PARALLEL_THRESHOLD = 64 * BLOCK_SIZE;
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * Evaluates the expression for every row, throwing on division by zero.
+     *
+     * @param expression The compiled expression.
+     * @param columns One column per variable, each at least as long as the output.
+     * @param output The destination; its length defines the number of rows.
+     * @throws IllegalArgumentException If a column is missing or too short.
+     * @throws ArithmeticException If any row divides by zero.
+     */
+    public static void evaluate(CompiledExpression expression, double[][] columns, double[] output) {
+        evaluate(expression, columns, output, DivisionByZeroPolicy.THROW);
+    }
+
+    /**
+     * Evaluates the expression for every row on the calling thread.
+     *
+     * @param expression The compiled expression.
+     * @param columns One column per variable, each at least as long as the output.
+     * @param output The destination; its length defines the number of rows.
+     * @param policy How division by zero is handled.
+     * @return The number of rows that divided by zero and were set to NaN (always 0 for THROW).
+     * @throws IllegalArgumentException If a column is missing or too short.
+     * @throws ArithmeticException If a row divides by zero under the THROW policy; the message names
+     *                             the lowest such row, whichever division in the expression failed.
+     */
+    public static long evaluate(CompiledExpression expression, double[][] columns, double[] output,
+                                DivisionByZeroPolicy policy) {
+        validate(expression, columns, output);
+        return new Kernel(expression, columns, output, policy).run(0, output.length);
+    }
+
+    /**
+     * Evaluates the expression for every row, splitting the rows across the common fork-join pool.
+     *
+     * @param expression The compiled expression.
+     * @param columns One column per variable, each at least as long as the output.
+     * @param output The destination; its length defines the number of rows.
+     * @param policy How division by zero is handled.
+     * @return The number of rows that divided by zero and were set to NaN (always 0 for THROW).
+     * @throws IllegalArgumentException If a column is missing or too short.
+     * @throws ArithmeticException If a row divides by zero under the THROW policy; when several
+     *                             rows do, which one is reported is unspecified.
+     */
+    public static long evaluateParallel(CompiledExpression expression, double[][] columns, double[] output,
+                                        DivisionByZeroPolicy policy) {
+        validate(expression, columns, output);
+        if (output.length <= PARALLEL_THRESHOLD) {
+            return new Kernel(expression, columns, output, policy).run(0, output.length);
+        }
+        return ForkJoinPool.commonPool().invoke(new RowRangeTask(expression, columns, output, policy, 0, output.length));
+    }
+
+    // Helper to check the columns once, before any row is touched
+    private static void validate(CompiledExpression expression, double[][] columns, double[] output) {
+        if (columns.length < expression.variableCount()) {
+            throw new IllegalArgumentException("Missing column for variable: " + expression.variables().get(columns.length));
+        }
+        for (int v = 0; v < expression.variableCount(); v++) {
+            if (columns[v] == null || columns[v].length < output.length) {
+                throw new IllegalArgumentException("Column for variable " + expression.variables().get(v)
+                        + " must have at least " + output.length + " rows.");
+            }
+        }
+    }
+
+    // Fork-join task that halves its row range until it is small enough to run directly
+    private static final class RowRangeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledExpression expression;
+        private final double[][] columns;
+        private final double[] output;
+        private final DivisionByZeroPolicy policy;
+        private final int from;
+        private final int to;
+
+        RowRangeTask(CompiledExpression expression, double[][] columns, double[] output,
+                     DivisionByZeroPolicy policy, int from, int to) {
+            this.expression = expression;
+            this.columns = columns;
+            this.output = output;
+            this.policy = policy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return new Kernel(expression, columns, output, policy).run(from, to);
+            }
+            // Split on a block boundary so that blocks never straddle two tasks
+            int mid = from + ((to - from) / 2 / BLOCK_SIZE) * BLOCK_SIZE;
+            RowRangeTask left = new RowRangeTask(expression, columns, output, policy, from, mid);
+            RowRangeTask right = new RowRangeTask(expression, columns, output, policy, mid, to);
+            left.fork();
+            long rightCount = right.compute();
+            return left.join() + rightCount;
+        }
+    }
+
+    // Evaluates blocks of rows; one instance per thread
+    private static final class Kernel {
+        private final CompiledExpression expression;
+        private final double[][] columns;
+        private final double[] output;
+        private final DivisionByZeroPolicy policy;
+
+        // Stack slot i is either a column (values[i] == columns[v], offset = row) or its own buffer (offset 0)
+        private final double[][] buffers;
+        private final double[][] slots;
+        private final double[][] values;
+        private final int[] offsets;
+        private final boolean[] faulted = new boolean[BLOCK_SIZE];
+
+        Kernel(CompiledExpression expression, double[][] columns, double[] output, DivisionByZeroPolicy policy) {
+            this.expression = expression;
+            this.columns = columns;
+            this.output = output;
+            this.policy = policy;
+            int maxDepth = expression.maxDepth();
+            buffers = new double[maxDepth][BLOCK_SIZE];
+            slots = new double[expression.slotCount()][BLOCK_SIZE];
+            values = new double[maxDepth][];
+            offsets = new int[maxDepth];
+        }
+
+        long run(int from, int to) {
+            long nanRows = 0;
+            for (int row = from; row < to; row += BLOCK_SIZE) {
+                nanRows += runBlock(row, Math.min(BLOCK_SIZE, to - row));
+            }
+            return nanRows;
+        }
+
+        private long runBlock(int row, int length) {
+            boolean anyFault = false;
+            int top = -1;
+            int count = expression.instructionCount();
+            for (int pc = 0; pc < count; pc++) {
+                byte opcode = expression.opcode(pc);
+                if (opcode == CompiledExpression.PUSH_CONSTANT) {
+                    top++;
+                    Arrays.fill(buffers[top], 0, length, expression.constant(expression.operand(pc)));
+                    values[top] = buffers[top];
+                    offsets[top] = 0;
+                } else if (opcode == CompiledExpression.LOAD_VARIABLE) {
+                    top++;
+                    values[top] = columns[expression.operand(pc)]; // Read in place, no copy
+                    offsets[top] = row;
+                } else if (opcode == CompiledExpression.STORE_SLOT) {
+                    System.arraycopy(values[top], offsets[top], slots[expression.operand(pc)], 0, length);
+                } else if (opcode == CompiledExpression.LOAD_SLOT) {
+                    top++;
+                    values[top] = slots[expression.operand(pc)];
+                    offsets[top] = 0;
+                } else {
+                    top--;
+                    double[] left = values[top];
+                    int leftOffset = offsets[top];
+                    double[] right = values[top + 1];
+                    int rightOffset = offsets[top + 1];
+                    double[] result = buffers[top];
+                    switch (opcode) {
+                        case CompiledExpression.ADD -> {
+                            for (int i = 0; i < length; i++) {
+                                result[i] = left[leftOffset + i] + right[rightOffset + i];
+                            }
+                        }
+                        case CompiledExpression.SUBTRACT -> {
+                            for (int i = 0; i < length; i++) {
+                                result[i] = left[leftOffset + i] - right[rightOffset + i];
+                            }
+                        }
+                        case CompiledExpression.MULTIPLY -> {
+                            for (int i = 0; i < length; i++) {
+                                result[i] = left[leftOffset + i] * right[rightOffset + i];
+                            }
+                        }
+                        case CompiledExpression.DIVIDE -> {
+                            int zeros = 0;
+                            for (int i = 0; i < length; i++) {
+                                double divisor = right[rightOffset + i];
+                                result[i] = left[leftOffset + i] / divisor;
+                                zeros += divisor == 0 ? 1 : 0;
+                            }
+                            if (zeros > 0) {
+                                markDivisionByZero(right, rightOffset, length);
+                                anyFault = true;
+                            }
+                        }
+                        default -> throw new IllegalStateException("Invalid opcode: " + opcode);
+                    }
+                    values[top] = result;
+                    offsets[top] = 0;
+                }
+            }
+            if (anyFault && policy == DivisionByZeroPolicy.THROW) {
+                throwAtFirstFault(row, length);
+            }
+            System.arraycopy(values[0], offsets[0], output, row, length);
+            if (!anyFault) {
+                return 0;
+            }
+            long nanRows = 0;
+            for (int i = 0; i < length; i++) {
+                if (faulted[i]) {
+                    output[row + i] = Double.NaN;
+                    faulted[i] = false;
+                    nanRows++;
+                }
+            }
+            return nanRows;
+        }
+
+        // Helper to mark the rows of a block whose divisor is zero
+        private void markDivisionByZero(double[] divisors, int offset, int length) {
+            for (int i = 0; i < length; i++) {
+                if (divisors[offset + i] == 0) {
+                    faulted[i] = true;
+                }
+            }
+        }
+
+        // Helper to report the lowest faulting row of a block, whichever division it failed in
+        private void throwAtFirstFault(int row, int length) {
+            int first = -1;
+            for (int i = 0; i < length; i++) {
+                if (faulted[i] && first < 0) {
+                    first = i;
+                }
+                faulted[i] = false;
+            }
+            throw new ArithmeticException("Division by zero at row " + (row + first));
+        }
+    }
+}
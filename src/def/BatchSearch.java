@@ -0,0 +1,180 @@
+package def;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The BatchSearch class looks up many keys against the same sorted {@code int[]} in one call.
+ * It answers the same question as {@link RecursiveBinarySearch#binarySearchRecursive(int[], int, int, int)}
+ * for every query, but much faster than calling it in a loop.
+ *
+ * Strategies:
+ * - Interleaved search: eight independent binary searches advance in lockstep. All of
+ *   them probe the same array with the same remaining length, so one step is
+ *   eight independent loads that the CPU can keep in flight together, hiding most
+ *   of the memory latency of a single search.
+ * - Merge scan: when the queries themselves are sorted and numerous enough, both arrays are
+ *   walked once in O(n + q) instead of O(q log n).
+ * - Narrowing search: sorted queries that are too few for a merge start each search at the
+ *   previous answer.
+ * - Optional fork-join parallelism for large batches.
+ *
+ * Note:
+ * - The result for each query is the index of its first occurrence, or -1 if it is absent.
+ */
+public final class BatchSearch {
+
+    // Number of searches interleaved in one group
+    private static final int GROUP = 8;
+
+    // Queries per fork-join leaf task
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private BatchSearch() {
+    }
+
+    /**
+     * Looks up every query in a sorted array.
+     *
+     * @param sorted The sorted array to search.
+     * @param queries The keys to look up, in any order.
+     * @param outIndices Receives, for each query, the index of its first occurrence or -1.
+     * @throws IllegalArgumentException If an array is null or outIndices is shorter than queries.
+     */
+    public static void searchAll(int[] sorted, int[] queries, int[] outIndices) {
+        validate(sorted, queries, outIndices);
+        searchRange(sorted, queries, outIndices, 0, queries.length);
+    }
+
+    /**
+     * Looks up every query in a sorted array, splitting the queries across the common fork-join pool.
+     *
+     * @param sorted The sorted array to search.
+     * @param queries The keys to look up, in any order.
+     * @param outIndices Receives, for each query, the index of its first occurrence or -1.
+     * @throws IllegalArgumentException If an array is null or outIndices is shorter than queries.
+     */
+    public static void searchAllParallel(int[] sorted, int[] queries, int[] outIndices) {
+        validate(sorted, queries, outIndices);
+        if (queries.length <= PARALLEL_THRESHOLD) {
+            searchRange(sorted, queries, outIndices, 0, queries.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new SearchTask(sorted, queries, outIndices, 0, queries.length));
+        }
+    }
+
+    private static void validate(int[] sorted, int[] queries, int[] outIndices) {
+        if (sorted == null || queries == null || outIndices == null) {
+            throw new IllegalArgumentException("Arrays cannot be null.");
+        }
+        if (outIndices.length < queries.length) {
+            throw new IllegalArgumentException("Output must hold at least " + queries.length + " indices.");
+        }
+    }
+
+    // Helper to pick a strategy for the queries in [from, to)
+    private static void searchRange(int[] sorted, int[] queries, int[] out, int from, int to) {
+        if (isSorted(queries, from, to)) {
+            long count = to - from;
+            long log = 32 - Integer.numberOfLeadingZeros(sorted.length);
+            if (count * log > sorted.length + count) {
+                mergeScan(sorted, queries, out, from, to);
+            } else {
+                narrowingSearch(sorted, queries, out, from, to);
+            }
+        } else {
+            interleavedSearch(sorted, queries, out, from, to);
+        }
+    }
+
+    private static boolean isSorted(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (a[i - 1] > a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Runs GROUP branch-free lower-bound searches side by side
+    private static void interleavedSearch(int[] sorted, int[] queries, int[] out, int from, int to) {
+        int length = sorted.length;
+        int[] base = new int[GROUP];
+        int q = from;
+        for (; q + GROUP <= to; q += GROUP) {
+            Arrays.fill(base, 0);
+            int n = length;
+            while (n > 1) {
+                int half = n >>> 1;
+                for (int j = 0; j < GROUP; j++) {
+                    base[j] = sorted[base[j] + half] < queries[q + j] ? base[j] + half : base[j];
+                }
+                n -= half;
+            }
+            for (int j = 0; j < GROUP; j++) {
+                int key = queries[q + j];
+                int i = n == 1 && sorted[base[j]] < key ? base[j] + 1 : base[j];
+                out[q + j] = i < length && sorted[i] == key ? i : -1;
+            }
+        }
+        // Remaining queries one at a time
+        for (; q < to; q++) {
+            int i = BinarySearchKernels.lowerBound(sorted, queries[q]);
+            out[q] = i < length && sorted[i] == queries[q] ? i : -1;
+        }
+    }
+
+    // Walks both sorted sequences once
+    private static void mergeScan(int[] sorted, int[] queries, int[] out, int from, int to) {
+        int length = sorted.length;
+        int i = 0;
+        for (int q = from; q < to; q++) {
+            int key = queries[q];
+            while (i < length && sorted[i] < key) {
+                i++;
+            }
+            out[q] = i < length && sorted[i] == key ? i : -1;
+        }
+    }
+
+    // Sorted queries: each search only needs to look right of the previous answer
+    private static void narrowingSearch(int[] sorted, int[] queries, int[] out, int from, int to) {
+        int length = sorted.length;
+        int start = 0;
+        for (int q = from; q < to; q++) {
+            int key = queries[q];
+            start = BinarySearchKernels.lowerBound(sorted, start, length, key);
+            out[q] = start < length && sorted[start] == key ? start : -1;
+        }
+    }
+
+    // Fork-join task that halves its query range until it is small enough to run directly
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sorted;
+        private final int[] queries;
+        private final int[] out;
+        private final int from;
+        private final int to;
+
+        SearchTask(int[] sorted, int[] queries, int[] out, int from, int to) {
+            this.sorted = sorted;
+            this.queries = queries;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                searchRange(sorted, queries, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SearchTask(sorted, queries, out, from, mid), new SearchTask(sorted, queries, out, mid, to));
+        }
+    }
+}
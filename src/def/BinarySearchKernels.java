@@ -0,0 +1,592 @@
+package def;
+
+import java.util.Comparator;
+
+/**
+ * The BinarySearchKernels class provides iterative binary search kernels for sorted
+ * {@code int[]}, {@code long[]}, {@code double[]}, {@code char[]} and generic {@code T[]} arrays.
+ * It complements the recursive methods in {@link RecursiveBinarySearch} for hot lookup paths.
+ *
+ * Features:
+ * - {@code lowerBound}: index of the first element that is not less than the key.
+ * - {@code upperBound}: index of the first element that is greater than the key.
+ * - {@code contains}: whether the key is present.
+ * - Every operation has a whole-array form and a [from, to) range form.
+ *
+ * Implementation:
+ * - Arguments are validated once per call, never inside the search loop.
+ * - The loop halves the remaining length on every step and selects the new base with a
+ *   conditional expression instead of a branch, which the JIT compiles to a conditional
+ *   move. The number of iterations depends only on the length, so there are no
+ *   mispredicted branches.
+ * - {@code double} keys are compared with {@link Double#compare(double, double)}, matching
+ *   the order produced by {@link java.util.Arrays#sort(double[])} (-0.0 before 0.0, NaN last).
+ *
+ * Note:
+ * - The arrays must be sorted in ascending order (by the comparator for {@code T[]}).
+ * - Empty arrays and empty ranges are allowed; their bounds are the start of the range.
+ */
+public final class BinarySearchKernels {
+
+    private BinarySearchKernels() {
+    }
+
+    /**
+     * Returns the index of the first element that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The lower bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int lowerBound(int[] a, int key) {
+        checkArray(a);
+        return lowerBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The lower bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int lowerBound(int[] a, int from, int to, int key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return lowerBound0(a, from, to, key);
+    }
+
+    /**
+     * Returns the index of the first element that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The upper bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int upperBound(int[] a, int key) {
+        checkArray(a);
+        return upperBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The upper bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int upperBound(int[] a, int from, int to, int key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return upperBound0(a, from, to, key);
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return Whether the array contains the key.
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static boolean contains(int[] a, int key) {
+        checkArray(a);
+        int i = lowerBound0(a, 0, a.length, key);
+        return i < a.length && a[i] == key;
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return Whether the range [from, to) contains the key.
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static boolean contains(int[] a, int from, int to, int key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        int i = lowerBound0(a, from, to, key);
+        return i < to && a[i] == key;
+    }
+
+    private static int lowerBound0(int[] a, int from, int to, int key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] < key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && a[base] < key ? base + 1 : base;
+    }
+
+    private static int upperBound0(int[] a, int from, int to, int key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] <= key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && a[base] <= key ? base + 1 : base;
+    }
+
+    /**
+     * Returns the index of the first element that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The lower bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int lowerBound(long[] a, long key) {
+        checkArray(a);
+        return lowerBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The lower bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int lowerBound(long[] a, int from, int to, long key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return lowerBound0(a, from, to, key);
+    }
+
+    /**
+     * Returns the index of the first element that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The upper bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int upperBound(long[] a, long key) {
+        checkArray(a);
+        return upperBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The upper bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int upperBound(long[] a, int from, int to, long key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return upperBound0(a, from, to, key);
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return Whether the array contains the key.
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static boolean contains(long[] a, long key) {
+        checkArray(a);
+        int i = lowerBound0(a, 0, a.length, key);
+        return i < a.length && a[i] == key;
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return Whether the range [from, to) contains the key.
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static boolean contains(long[] a, int from, int to, long key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        int i = lowerBound0(a, from, to, key);
+        return i < to && a[i] == key;
+    }
+
+    private static int lowerBound0(long[] a, int from, int to, long key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] < key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && a[base] < key ? base + 1 : base;
+    }
+
+    private static int upperBound0(long[] a, int from, int to, long key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] <= key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && a[base] <= key ? base + 1 : base;
+    }
+
+    /**
+     * Returns the index of the first element that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The lower bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int lowerBound(double[] a, double key) {
+        checkArray(a);
+        return lowerBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The lower bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int lowerBound(double[] a, int from, int to, double key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return lowerBound0(a, from, to, key);
+    }
+
+    /**
+     * Returns the index of the first element that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The upper bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int upperBound(double[] a, double key) {
+        checkArray(a);
+        return upperBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The upper bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int upperBound(double[] a, int from, int to, double key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return upperBound0(a, from, to, key);
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return Whether the array contains the key.
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static boolean contains(double[] a, double key) {
+        checkArray(a);
+        int i = lowerBound0(a, 0, a.length, key);
+        return i < a.length && Double.compare(a[i], key) == 0;
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return Whether the range [from, to) contains the key.
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static boolean contains(double[] a, int from, int to, double key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        int i = lowerBound0(a, from, to, key);
+        return i < to && Double.compare(a[i], key) == 0;
+    }
+
+    private static int lowerBound0(double[] a, int from, int to, double key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = Double.compare(a[base + half], key) < 0 ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && Double.compare(a[base], key) < 0 ? base + 1 : base;
+    }
+
+    private static int upperBound0(double[] a, int from, int to, double key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = Double.compare(a[base + half], key) <= 0 ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && Double.compare(a[base], key) <= 0 ? base + 1 : base;
+    }
+
+    /**
+     * Returns the index of the first element that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The lower bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int lowerBound(char[] a, char key) {
+        checkArray(a);
+        return lowerBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is not less than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The lower bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int lowerBound(char[] a, int from, int to, char key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return lowerBound0(a, from, to, key);
+    }
+
+    /**
+     * Returns the index of the first element that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return The upper bound in [0, a.length].
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static int upperBound(char[] a, char key) {
+        checkArray(a);
+        return upperBound0(a, 0, a.length, key);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is greater than the key.
+     *
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return The upper bound in [from, to].
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static int upperBound(char[] a, int from, int to, char key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        return upperBound0(a, from, to, key);
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param key The value to search for.
+     * @return Whether the array contains the key.
+     * @throws IllegalArgumentException If the array is null.
+     */
+    public static boolean contains(char[] a, char key) {
+        checkArray(a);
+        int i = lowerBound0(a, 0, a.length, key);
+        return i < a.length && a[i] == key;
+    }
+
+    /**
+     * @param a The sorted array.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @return Whether the range [from, to) contains the key.
+     * @throws IllegalArgumentException If the array is null or the range is invalid.
+     */
+    public static boolean contains(char[] a, int from, int to, char key) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        int i = lowerBound0(a, from, to, key);
+        return i < to && a[i] == key;
+    }
+
+    private static int lowerBound0(char[] a, int from, int to, char key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] < key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && a[base] < key ? base + 1 : base;
+    }
+
+    private static int upperBound0(char[] a, int from, int to, char key) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] <= key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && a[base] <= key ? base + 1 : base;
+    }
+
+    /**
+     * Returns the index of the first element that is not less than the key.
+     *
+     * @param a The array, sorted by the comparator.
+     * @param key The value to search for.
+     * @param comparator The order of the array.
+     * @return The lower bound in [0, a.length].
+     * @throws IllegalArgumentException If the array or the comparator is null.
+     */
+    public static <T> int lowerBound(T[] a, T key, Comparator<? super T> comparator) {
+        checkArray(a);
+        checkComparator(comparator);
+        return lowerBound0(a, 0, a.length, key, comparator);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is not less than the key.
+     *
+     * @param a The array, sorted by the comparator.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @param comparator The order of the array.
+     * @return The lower bound in [from, to].
+     * @throws IllegalArgumentException If the array or the comparator is null, or the range is invalid.
+     */
+    public static <T> int lowerBound(T[] a, int from, int to, T key, Comparator<? super T> comparator) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        checkComparator(comparator);
+        return lowerBound0(a, from, to, key, comparator);
+    }
+
+    /**
+     * Returns the index of the first element that is greater than the key.
+     *
+     * @param a The array, sorted by the comparator.
+     * @param key The value to search for.
+     * @param comparator The order of the array.
+     * @return The upper bound in [0, a.length].
+     * @throws IllegalArgumentException If the array or the comparator is null.
+     */
+    public static <T> int upperBound(T[] a, T key, Comparator<? super T> comparator) {
+        checkArray(a);
+        checkComparator(comparator);
+        return upperBound0(a, 0, a.length, key, comparator);
+    }
+
+    /**
+     * Returns the index of the first element in [from, to) that is greater than the key.
+     *
+     * @param a The array, sorted by the comparator.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @param comparator The order of the array.
+     * @return The upper bound in [from, to].
+     * @throws IllegalArgumentException If the array or the comparator is null, or the range is invalid.
+     */
+    public static <T> int upperBound(T[] a, int from, int to, T key, Comparator<? super T> comparator) {
+        checkArray(a);
+        checkRange(a.length, from, to);
+        checkComparator(comparator);
+        return upperBound0(a, from, to, key, comparator);
+    }
+
+    /**
+     * @param a The array, sorted by the comparator.
+     * @param key The value to search for.
+     * @param comparator The order of the array.
+     * @return Whether the array contains an element that compares equal to the key.
+     * @throws IllegalArgumentException If the array or the comparator is null.
+     */
+    public static <T> boolean contains(T[] a, T key, Comparator<? super T> comparator) {
+        return contains(a, 0, a == null ? 0 : a.length, key, comparator);
+    }
+
+    /**
+     * @param a The array, sorted by the comparator.
+     * @param from The first index of the range (inclusive).
+     * @param to The end of the range (exclusive).
+     * @param key The value to search for.
+     * @param comparator The order of the array.
+     * @return Whether the range [from, to) contains an element that compares equal to the key.
+     * @throws IllegalArgumentException If the array or the comparator is null, or the range is invalid.
+     */
+    public static <T> boolean contains(T[] a, int from, int to, T key, Comparator<? super T> comparator) {
+        int i = lowerBound(a, from, to, key, comparator);
+        return i < to && comparator.compare(a[i], key) == 0;
+    }
+
+    private static <T> int lowerBound0(T[] a, int from, int to, T key, Comparator<? super T> comparator) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = comparator.compare(a[base + half], key) < 0 ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && comparator.compare(a[base], key) < 0 ? base + 1 : base;
+    }
+
+    private static <T> int upperBound0(T[] a, int from, int to, T key, Comparator<? super T> comparator) {
+        int base = from;
+        int n = to - from;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = comparator.compare(a[base + half], key) <= 0 ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && comparator.compare(a[base], key) <= 0 ? base + 1 : base;
+    }
+
+    private static void checkArray(Object a) {
+        if (a == null) {
+            throw new IllegalArgumentException("Array cannot be null.");
+        }
+    }
+
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for array of length " + length);
+        }
+    }
+
+    private static void checkComparator(Comparator<?> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator cannot be null.");
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package def;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompiledExpression class holds a mathematical expression that has already been
+ * parsed by {@link RecursiveExpressionParser#compile(String)}. The expression is stored
+ * as a flat postfix instruction array, so it can be evaluated any number of times
+ * without touching the original string again.
+ *
+ * Features:
+ * - Immutable and thread-safe: one instance can be shared by any number of threads.
+ * - Supports named variables, e.g. {@code price * (1 - discount)}.
+ * - Variables are bound by index (see {@link #variableIndex(String)}), so evaluation
+ *   performs no string work and no allocation per call.
+ * - Integer-only expressions can also be evaluated exactly in {@code long} arithmetic
+ *   (see {@link #evaluateLong(long...)}).
+ *
+ * Note:
+ * - Variable indices follow the order in which the variables first appear in the expression.
+ */
+public final class CompiledExpression {
+
+    // Instruction set. Loads push one value; operators pop two and push one.
+    // STORE_SLOT copies the top of the stack into a shared slot without popping it,
+    // LOAD_SLOT pushes a previously stored slot (used for common sub-expressions).
+    static final byte PUSH_CONSTANT = 0;
+    static final byte LOAD_VARIABLE = 1;
+    static final byte ADD = 2;
+    static final byte SUBTRACT = 3;
+    static final byte MULTIPLY = 4;
+    static final byte DIVIDE = 5;
+    static final byte STORE_SLOT = 6;
+    static final byte LOAD_SLOT = 7;
+
+    // Per-thread operand stack used by the convenience evaluate methods
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[16]);
+    private static final ThreadLocal<long[]> LONG_SCRATCH = ThreadLocal.withInitial(() -> new long[16]);
+    private static final double[] NO_VALUES = new double[0];
+
+    private final String source;
+    private final byte[] opcodes;
+    private final int[] operands;
+    private final double[] constants;
+    private final long[] integerConstants; // null unless every literal is an integer
+    private final String[] variables;
+    private final int maxDepth;
+    private final int slotCount;
+
+    CompiledExpression(String source, byte[] opcodes, int[] operands, double[] constants, String[] variables) {
+        this(source, opcodes, operands, constants, null, variables);
+    }
+
+    CompiledExpression(String source, byte[] opcodes, int[] operands, double[] constants, long[] integerConstants,
+                       String[] variables) {
+        this.source = source;
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.constants = constants;
+        this.integerConstants = integerConstants;
+        this.variables = variables;
+        this.maxDepth = computeMaxDepth(opcodes);
+        this.slotCount = computeSlotCount(opcodes, operands);
+    }
+
+    /**
+     * Evaluates an expression that has no variables.
+     *
+     * @return The evaluated result of the expression.
+     * @throws IllegalArgumentException If the expression references variables.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    public double evaluate() {
+        return evaluate(NO_VALUES);
+    }
+
+    /**
+     * Evaluates the expression with the given variable values.
+     *
+     * @param values The variable values, indexed as described by {@link #variableIndex(String)}.
+     * @return The evaluated result of the expression.
+     * @throws IllegalArgumentException If fewer values than variables are supplied.
+     * @throws ArithmeticException If the expression divides by zero.
+     *
+     * Behavior:
+     * - Uses a per-thread operand stack, so repeated calls do not allocate.
+     */
+    public double evaluate(double... values) {
+        double[] stack = SCRATCH.get();
+        if (stack.length < stackSize()) {
+            stack = new double[stackSize()];
+            SCRATCH.set(stack);
+        }
+        return evaluate(values, stack);
+    }
+
+    /**
+     * Evaluates the expression with the given variable values and a caller-supplied operand stack.
+     *
+     * @param values The variable values, indexed as described by {@link #variableIndex(String)}.
+     * @param stack Scratch space of at least {@link #stackSize()} elements (operand stack plus shared slots).
+     * @return The evaluated result of the expression.
+     * @throws IllegalArgumentException If fewer values than variables are supplied or the stack is too small.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    public double evaluate(double[] values, double[] stack) {
+        if (values.length < variables.length) {
+            throw new IllegalArgumentException("Missing value for variable: " + variables[values.length]);
+        }
+        if (stack.length < stackSize()) {
+            throw new IllegalArgumentException("Stack must hold at least " + stackSize() + " values.");
+        }
+        int top = -1;
+        int slotBase = maxDepth; // Shared slots live above the operand stack
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case PUSH_CONSTANT -> stack[++top] = constants[operands[pc]];
+                case LOAD_VARIABLE -> stack[++top] = values[operands[pc]];
+                case ADD -> { top--; stack[top] = stack[top] + stack[top + 1]; }
+                case SUBTRACT -> { top--; stack[top] = stack[top] - stack[top + 1]; }
+                case MULTIPLY -> { top--; stack[top] = stack[top] * stack[top + 1]; }
+                case DIVIDE -> { top--; stack[top] = divide(stack[top], stack[top + 1]); }
+                case STORE_SLOT -> stack[slotBase + operands[pc]] = stack[top];
+                case LOAD_SLOT -> stack[++top] = stack[slotBase + operands[pc]];
+                default -> throw new IllegalStateException("Invalid opcode: " + opcodes[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Evaluates the expression with variable values looked up by name.
+     *
+     * @param bindings The variable values keyed by variable name.
+     * @return The evaluated result of the expression.
+     * @throws IllegalArgumentException If a variable has no binding.
+     *
+     * Note:
+     * - This is a convenience for one-off calls; hot paths should use {@link #evaluate(double...)}.
+     */
+    public double evaluate(Map<String, ? extends Number> bindings) {
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Number value = bindings.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for variable: " + variables[i]);
+            }
+            values[i] = value.doubleValue();
+        }
+        return evaluate(values);
+    }
+
+    /**
+     * Evaluates an integer-only expression exactly in {@code long} arithmetic.
+     *
+     * @param values The variable values, indexed as described by {@link #variableIndex(String)}.
+     * @return The exact integer result.
+     * @throws IllegalStateException If the expression contains a non-integer literal (see {@link #isIntegral()}).
+     * @throws IllegalArgumentException If fewer values than variables are supplied.
+     * @throws ArithmeticException If an intermediate result overflows a long, a division is not
+     *                             exact, or the expression divides by zero.
+     *
+     * Behavior:
+     * - Never rounds: a result is either exact or an exception, unlike double evaluation,
+     *   which silently rounds integers above 2^53.
+     * - Uses a per-thread operand stack, so repeated calls do not allocate.
+     */
+    public long evaluateLong(long... values) {
+        long[] stack = LONG_SCRATCH.get();
+        if (stack.length < stackSize()) {
+            stack = new long[stackSize()];
+            LONG_SCRATCH.set(stack);
+        }
+        return evaluateLong(values, stack);
+    }
+
+    /**
+     * Evaluates an integer-only expression exactly, with a caller-supplied operand stack.
+     *
+     * @param values The variable values, indexed as described by {@link #variableIndex(String)}.
+     * @param stack Scratch space of at least {@link #stackSize()} elements.
+     * @return The exact integer result.
+     * @throws IllegalStateException If the expression contains a non-integer literal.
+     * @throws IllegalArgumentException If fewer values than variables are supplied or the stack is too small.
+     * @throws ArithmeticException On overflow, inexact division or division by zero.
+     */
+    public long evaluateLong(long[] values, long[] stack) {
+        if (integerConstants == null) {
+            throw new IllegalStateException("Expression is not integer-only: " + source);
+        }
+        if (values.length < variables.length) {
+            throw new IllegalArgumentException("Missing value for variable: " + variables[values.length]);
+        }
+        if (stack.length < stackSize()) {
+            throw new IllegalArgumentException("Stack must hold at least " + stackSize() + " values.");
+        }
+        int top = -1;
+        int slotBase = maxDepth;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case PUSH_CONSTANT -> stack[++top] = integerConstants[operands[pc]];
+                case LOAD_VARIABLE -> stack[++top] = values[operands[pc]];
+                case ADD -> { top--; stack[top] = Math.addExact(stack[top], stack[top + 1]); }
+                case SUBTRACT -> { top--; stack[top] = Math.subtractExact(stack[top], stack[top + 1]); }
+                case MULTIPLY -> { top--; stack[top] = Math.multiplyExact(stack[top], stack[top + 1]); }
+                case DIVIDE -> { top--; stack[top] = divideExact(stack[top], stack[top + 1]); }
+                case STORE_SLOT -> stack[slotBase + operands[pc]] = stack[top];
+                case LOAD_SLOT -> stack[++top] = stack[slotBase + operands[pc]];
+                default -> throw new IllegalStateException("Invalid opcode: " + opcodes[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * @return Whether every literal in the expression is an integer that fits in a long, so that
+     *         {@link #evaluateLong(long...)} can be used.
+     */
+    public boolean isIntegral() {
+        return integerConstants != null;
+    }
+
+    /**
+     * Returns the index under which the given variable must be passed to {@link #evaluate(double...)}.
+     *
+     * @param name The variable name.
+     * @return The variable index, or -1 if the expression does not reference the variable.
+     */
+    public int variableIndex(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The variable names in index order.
+     */
+    public List<String> variables() {
+        return List.of(variables);
+    }
+
+    /**
+     * @return The scratch space needed by {@link #evaluate(double[], double[])}: the maximum
+     *         operand stack depth plus the number of shared sub-expression slots.
+     */
+    public int stackSize() {
+        return maxDepth + slotCount;
+    }
+
+    /**
+     * @return The number of instructions (numbers, variables, operators and slot accesses) in the expression.
+     */
+    public int instructionCount() {
+        return opcodes.length;
+    }
+
+    /**
+     * @return The normalised source text this expression was compiled from.
+     */
+    public String source() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // Package-private accessors used by the other evaluators in this package
+    byte opcode(int pc) {
+        return opcodes[pc];
+    }
+
+    int operand(int pc) {
+        return operands[pc];
+    }
+
+    double constant(int index) {
+        return constants[index];
+    }
+
+    int variableCount() {
+        return variables.length;
+    }
+
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    int slotCount() {
+        return slotCount;
+    }
+
+    String[] variableNames() {
+        return variables;
+    }
+
+    // Helper to divide with the same error as RecursiveExpressionParser
+    static double divide(double left, double right) {
+        if (right == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return left / right;
+    }
+
+    // Helper to divide integers, failing instead of truncating or overflowing
+    private static long divideExact(long left, long right) {
+        if (right == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (left == Long.MIN_VALUE && right == -1) {
+            throw new ArithmeticException("long overflow");
+        }
+        if (left % right != 0) {
+            throw new ArithmeticException("Inexact integer division: " + left + " / " + right);
+        }
+        return left / right;
+    }
+
+    // Helper to compute the maximum operand stack depth of an instruction array
+    private static int computeMaxDepth(byte[] opcodes) {
+        int depth = 0;
+        int max = 0;
+        for (byte opcode : opcodes) {
+            if (opcode == STORE_SLOT) {
+                continue; // Does not change the depth
+            }
+            depth += (opcode == PUSH_CONSTANT || opcode == LOAD_VARIABLE || opcode == LOAD_SLOT) ? 1 : -1;
+            if (depth < 1) {
+                throw new IllegalStateException("Malformed instruction array.");
+            }
+            max = Math.max(max, depth);
+        }
+        if (depth != 1) {
+            throw new IllegalStateException("Malformed instruction array.");
+        }
+        return max;
+    }
+
+    // Helper to count the shared slots referenced by an instruction array
+    private static int computeSlotCount(byte[] opcodes, int[] operands) {
+        int count = 0;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            if (opcodes[pc] == STORE_SLOT || opcodes[pc] == LOAD_SLOT) {
+                count = Math.max(count, operands[pc] + 1);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Builder used by the parser to emit instructions in postfix order.
+     */
+    static final class Builder {
+        private byte[] opcodes = new byte[16];
+        private int[] operands = new int[16];
+        private int size;
+        private double[] constants = new double[8];
+        private long[] integerConstants = new long[8];
+        private int constantCount;
+        private boolean integral = true;
+        private final List<String> variables = new ArrayList<>();
+        private final Map<String, Integer> variableIndices = new HashMap<>();
+
+        void constant(double value) {
+            integral = false;
+            addConstant(value, 0);
+        }
+
+        void integerConstant(long value) {
+            addConstant(value, value);
+        }
+
+        private void addConstant(double value, long integerValue) {
+            if (constantCount == constants.length) {
+                constants = Arrays.copyOf(constants, constantCount * 2);
+                integerConstants = Arrays.copyOf(integerConstants, constantCount * 2);
+            }
+            constants[constantCount] = value;
+            integerConstants[constantCount] = integerValue;
+            emit(PUSH_CONSTANT, constantCount++);
+        }
+
+        void variable(String name) {
+            Integer index = variableIndices.get(name);
+            if (index == null) {
+                index = variables.size();
+                variables.add(name);
+                variableIndices.put(name, index);
+            }
+            emit(LOAD_VARIABLE, index);
+        }
+
+        void operator(char operator) {
+            emit(switch (operator) {
+                case '+' -> ADD;
+                case '-' -> SUBTRACT;
+                case '*' -> MULTIPLY;
+                case '/' -> DIVIDE;
+                default -> throw new IllegalArgumentException("Invalid operator: " + operator);
+            }, 0);
+        }
+
+        CompiledExpression build(String source) {
+            return new CompiledExpression(source, Arrays.copyOf(opcodes, size), Arrays.copyOf(operands, size),
+                    Arrays.copyOf(constants, constantCount),
+                    integral ? Arrays.copyOf(integerConstants, constantCount) : null,
+                    variables.toArray(new String[0]));
+        }
+
+        private void emit(byte opcode, int operand) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            opcodes[size] = opcode;
+            operands[size] = operand;
+            size++;
+        }
+    }
+}
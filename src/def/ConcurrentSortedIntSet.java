@@ -0,0 +1,385 @@
+package def;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConcurrentSortedIntSet class is a set of {@code int} keys that stays sorted and searchable
+ * while it receives inserts, for read-mostly workloads with occasional writers. Keeping one
+ * sorted array up to date would copy the whole array on every write; instead, writes go into
+ * a small sorted delta that a background thread merges into the main array in bulk.
+ *
+ * Features:
+ * - Lock-free reads: every read works on an immutable {@link Snapshot} (main array, the delta
+ *   being merged and the current delta), published through a single atomic reference.
+ * - Writers serialise on a lock and copy only the small delta.
+ * - Once the delta reaches its limit it is handed to a background merge thread; writers keep
+ *   going into a fresh delta meanwhile.
+ * - Back-pressure: if the fresh delta reaches four times the limit before that merge finishes,
+ *   writers wait for it, so reads never scan an unbounded delta.
+ * - Metrics: merge count, total merge time and stalled writes, plus opt-in read latency (count, average, max).
+ *
+ * Note:
+ * - A snapshot never changes; {@link #snapshot()} gives readers a consistent view for
+ *   several lookups in a row.
+ * - {@link #close()} stops the merge thread; the set stays readable but rejects further inserts.
+ */
+public final class ConcurrentSortedIntSet implements AutoCloseable {
+
+    private static final int DEFAULT_DELTA_LIMIT = 1024;
+
+    // Writers wait for the pending merge once the delta holds this many times the delta limit
+    private static final int BACK_PRESSURE_FACTOR = 4;
+    private static final int[] EMPTY = new int[0];
+
+    private final int deltaLimit;
+    private final int maxDelta;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(new Snapshot(EMPTY, EMPTY, EMPTY));
+    private final Object writeLock = new Object();
+    private final ExecutorService merger;
+    private Future<?> pendingMerge; // Guarded by writeLock
+    private boolean closed;         // Guarded by writeLock
+
+    private final LongAdder merges = new LongAdder();
+    private final LongAdder mergeNanos = new LongAdder();
+    private final LongAdder writeStalls = new LongAdder();
+    private volatile boolean trackReadLatency;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAccumulator maxReadNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty set that merges its delta every 1024 inserts.
+     */
+    public ConcurrentSortedIntSet() {
+        this(DEFAULT_DELTA_LIMIT);
+    }
+
+    /**
+     * Creates an empty set.
+     *
+     * @param deltaLimit The number of buffered inserts that triggers a background merge.
+     * @throws IllegalArgumentException If deltaLimit is not positive.
+     */
+    public ConcurrentSortedIntSet(int deltaLimit) {
+        if (deltaLimit <= 0) {
+            throw new IllegalArgumentException("Delta limit must be positive.");
+        }
+        this.deltaLimit = deltaLimit;
+        this.maxDelta = (int) Math.min(Integer.MAX_VALUE - 8, (long) deltaLimit * BACK_PRESSURE_FACTOR);
+        this.merger = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "sorted-set-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key The key to add.
+     * @return Whether the key was added; false if it was already present.
+     * @throws IllegalStateException If the set has been closed.
+     *
+     * Note:
+     * - Blocks while the delta is full (four times the delta limit) and a merge is still running.
+     */
+    public boolean add(int key) {
+        synchronized (writeLock) {
+            awaitDeltaRoom();
+            if (closed) {
+                throw new IllegalStateException("Set is closed.");
+            }
+            Snapshot snapshot = current.get();
+            if (snapshot.contains(key)) {
+                return false;
+            }
+            int[] delta = snapshot.delta;
+            int at = BinarySearchKernels.lowerBound(delta, key);
+            int[] grown = new int[delta.length + 1];
+            System.arraycopy(delta, 0, grown, 0, at);
+            grown[at] = key;
+            System.arraycopy(delta, at, grown, at + 1, delta.length - at);
+            current.set(new Snapshot(snapshot.main, snapshot.merging, grown));
+            if (grown.length >= deltaLimit && pendingMerge == null) {
+                startMerge();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Adds several keys.
+     *
+     * @param keys The keys to add.
+     * @return The number of keys that were not already present.
+     * @throws IllegalStateException If the set has been closed.
+     */
+    public int addAll(int... keys) {
+        int added = 0;
+        for (int key : keys) {
+            if (add(key)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @param key The key to look for.
+     * @return Whether the set contains the key.
+     */
+    public boolean contains(int key) {
+        if (!trackReadLatency) {
+            return current.get().contains(key);
+        }
+        long start = System.nanoTime();
+        boolean found = current.get().contains(key);
+        long elapsed = System.nanoTime() - start;
+        reads.increment();
+        readNanos.add(elapsed);
+        maxReadNanos.accumulate(elapsed);
+        return found;
+    }
+
+    /**
+     * @param key The key to rank.
+     * @return The number of keys less than the given key.
+     */
+    public int rank(int key) {
+        return current.get().rank(key);
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * @return An immutable view of the set as it is now.
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Merges all buffered inserts into the main array and waits until they are merged.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        while (true) {
+            Future<?> merge;
+            synchronized (writeLock) {
+                if (pendingMerge == null) {
+                    if (current.get().delta.length == 0 || closed) {
+                        return;
+                    }
+                    startMerge();
+                }
+                merge = pendingMerge;
+            }
+            try {
+                merge.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Merge failed.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Enables or disables read latency tracking for {@link #contains(int)}. It is off by default
+     * because timing every read costs about as much as the read itself.
+     *
+     * @param enabled Whether to record read latencies.
+     */
+    public void setReadLatencyTracking(boolean enabled) {
+        trackReadLatency = enabled;
+    }
+
+    /**
+     * @return The number of completed background merges.
+     */
+    public long mergeCount() {
+        return merges.sum();
+    }
+
+    /**
+     * @return The total time spent merging, in nanoseconds.
+     */
+    public long totalMergeNanos() {
+        return mergeNanos.sum();
+    }
+
+    /**
+     * @return The number of inserts that had to wait for a merge because the delta was full.
+     */
+    public long writeStallCount() {
+        return writeStalls.sum();
+    }
+
+    /**
+     * @return The number of reads timed while tracking was enabled.
+     */
+    public long readCount() {
+        return reads.sum();
+    }
+
+    /**
+     * @return The average timed read latency in nanoseconds, or 0 if no reads were timed.
+     */
+    public double averageReadNanos() {
+        long count = reads.sum();
+        return count == 0 ? 0.0 : (double) readNanos.sum() / count;
+    }
+
+    /**
+     * @return The slowest timed read in nanoseconds.
+     */
+    public long maxReadNanos() {
+        return maxReadNanos.get();
+    }
+
+    /**
+     * Stops the merge thread after any merge in progress. Buffered inserts stay readable in the delta.
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            closed = true;
+            writeLock.notifyAll(); // Stalled writers fail instead of waiting for a merge
+        }
+        merger.shutdown();
+    }
+
+    // Helper to wait, releasing writeLock, while the delta is full and a merge is still running; caller holds writeLock.
+    // Interrupts do not abort the insert, they are restored once there is room.
+    private void awaitDeltaRoom() {
+        boolean stalled = false;
+        boolean interrupted = false;
+        while (!closed && pendingMerge != null && current.get().delta.length >= maxDelta) {
+            if (!stalled) {
+                writeStalls.increment();
+                stalled = true;
+            }
+            try {
+                writeLock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Helper to move the delta aside and merge it in the background; caller holds writeLock
+    private void startMerge() {
+        Snapshot snapshot = current.get();
+        current.set(new Snapshot(snapshot.main, snapshot.delta, EMPTY));
+        pendingMerge = merger.submit(this::merge);
+    }
+
+    private void merge() {
+        long start = System.nanoTime();
+        Snapshot snapshot = current.get();
+        // main and merging cannot change until this merge publishes, so merge without the lock
+        int[] merged = mergeSorted(snapshot.main, snapshot.merging);
+        synchronized (writeLock) {
+            Snapshot latest = current.get();
+            current.set(new Snapshot(merged, EMPTY, latest.delta));
+            pendingMerge = null;
+            merges.increment();
+            mergeNanos.add(System.nanoTime() - start);
+            if (latest.delta.length >= deltaLimit && !closed) {
+                startMerge();
+            }
+            writeLock.notifyAll(); // The full delta, if any, is now merging; stalled writers may go on
+        }
+    }
+
+    // Helper to merge two sorted arrays with no keys in common
+    private static int[] mergeSorted(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            merged[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        System.arraycopy(a, i, merged, k, a.length - i);
+        System.arraycopy(b, j, merged, k + a.length - i, b.length - j);
+        return merged;
+    }
+
+    /**
+     * An immutable, consistent view of the set. The three sorted parts never share a key.
+     */
+    public static final class Snapshot {
+        private final int[] main;
+        private final int[] merging;
+        private final int[] delta;
+
+        Snapshot(int[] main, int[] merging, int[] delta) {
+            this.main = main;
+            this.merging = merging;
+            this.delta = delta;
+        }
+
+        /**
+         * @param key The key to look for.
+         * @return Whether the snapshot contains the key.
+         */
+        public boolean contains(int key) {
+            return contains(delta, key) || contains(merging, key) || contains(main, key);
+        }
+
+        /**
+         * @param key The key to rank.
+         * @return The number of keys less than the given key.
+         */
+        public int rank(int key) {
+            return BinarySearchKernels.lowerBound(main, key) + BinarySearchKernels.lowerBound(merging, key)
+                    + BinarySearchKernels.lowerBound(delta, key);
+        }
+
+        /**
+         * @return The number of keys.
+         */
+        public int size() {
+            return main.length + merging.length + delta.length;
+        }
+
+        /**
+         * @return The number of keys not yet merged into the main array.
+         */
+        public int pendingCount() {
+            return merging.length + delta.length;
+        }
+
+        /**
+         * @return All keys in ascending order.
+         */
+        public int[] toArray() {
+            return mergeSorted(mergeSorted(main, merging), delta);
+        }
+
+        private static boolean contains(int[] sorted, int key) {
+            int i = BinarySearchKernels.lowerBound(sorted, key);
+            return i < sorted.length && sorted[i] == key;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package def;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The DigitSumEngine class computes digit sums and digital roots of decimal numbers far beyond
+ * the 19 digits of a {@code long}, such as {@link BigInteger}s or text files with billions of digits.
+ * It complements {@link RecursiveSumOfDigits}, which works on single {@code long} values.
+ *
+ * Features:
+ * - Sources: {@link BigInteger}, {@link CharSequence}, {@link InputStream} and memory-mapped files.
+ * - Large in-memory texts and files are split into chunks that are summed in parallel on the
+ *   common fork-join pool; streams are read through one fixed-size buffer.
+ * - Byte sources are scanned eight bytes at a time: a word of eight ASCII digits is recognised
+ *   and summed with a few bit operations, and only other words fall back to a per-byte loop.
+ * - A {@link NonDigitPolicy} decides whether non-digit characters are skipped or rejected.
+ *
+ * Note:
+ * - Memory use is constant: files are mapped chunk by chunk and never read onto the heap.
+ * - The digit sum of any realistic input fits in a long; {@link Result#sumAsBigInteger()} is
+ *   offered for callers that continue in BigInteger arithmetic.
+ */
+public final class DigitSumEngine {
+
+    /**
+     * What to do with characters that are not decimal digits.
+     */
+    public enum NonDigitPolicy {
+        /** Ignore every non-digit character. */
+        SKIP,
+        /** Allow only whitespace and a sign at the very start; anything else is an error. */
+        REJECT
+    }
+
+    // Characters per parallel chunk of an in-memory text
+    private static final int TEXT_CHUNK = 1 << 20;
+
+    // Bytes per memory-mapped chunk of a file
+    private static final long FILE_CHUNK = 16L << 20;
+
+    // Buffer size for input streams
+    private static final int STREAM_BUFFER = 64 * 1024;
+
+    // BigInteger numbers are split into chunks of this many digits, each of which fits in a long
+    private static final int CHUNK_DIGITS = 18;
+    private static final BigInteger CHUNK_POWER = BigInteger.TEN.pow(CHUNK_DIGITS);
+
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long LOW_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long SIXES = 0x0606060606060606L;
+    private static final long ONES = 0x0101010101010101L;
+
+    private DigitSumEngine() {
+    }
+
+    /**
+     * The digit sum of a number together with its digit count.
+     */
+    public static final class Result {
+        private final long sum;
+        private final long digits;
+
+        Result(long sum, long digits) {
+            this.sum = sum;
+            this.digits = digits;
+        }
+
+        /**
+         * @return The sum of all digits.
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * @return The sum of all digits as a BigInteger.
+         */
+        public BigInteger sumAsBigInteger() {
+            return BigInteger.valueOf(sum);
+        }
+
+        /**
+         * @return The number of digits that were summed.
+         */
+        public long digits() {
+            return digits;
+        }
+
+        /**
+         * @return The digital root: the digit sum repeated until a single digit remains.
+         */
+        public int digitalRoot() {
+            return sum == 0 ? 0 : (int) (1 + (sum - 1) % 9);
+        }
+
+        @Override
+        public String toString() {
+            return "sum=" + sum + ", digits=" + digits + ", digitalRoot=" + digitalRoot();
+        }
+    }
+
+    /**
+     * @param number The number; its sign is ignored.
+     * @return The digit sum of the number.
+     * @throws IllegalArgumentException If the number is null.
+     *
+     * Behavior:
+     * - Splits the number by divide and conquer into 18-digit chunks, using powers 10^(18 * 2^k),
+     *   and sums each chunk as a long with the table kernel. No decimal string is built.
+     */
+    public static Result sum(BigInteger number) {
+        if (number == null) {
+            throw new IllegalArgumentException("Number cannot be null.");
+        }
+        BigInteger magnitude = number.abs();
+        // powers[k] is 10^(18 * 2^k); the last one exceeds the magnitude
+        List<BigInteger> powers = new ArrayList<>();
+        powers.add(CHUNK_POWER);
+        while (powers.get(powers.size() - 1).compareTo(magnitude) <= 0) {
+            BigInteger last = powers.get(powers.size() - 1);
+            powers.add(last.multiply(last));
+        }
+        Tally tally = new Tally();
+        sumChunks(magnitude, powers, powers.size() - 1, false, tally);
+        return tally.toResult();
+    }
+
+    /**
+     * @param text The decimal text.
+     * @param policy How to treat non-digit characters.
+     * @return The digit sum of the text.
+     * @throws IllegalArgumentException If an argument is null, or the policy is REJECT and the text
+     *         contains an invalid character.
+     */
+    public static Result sum(CharSequence text, NonDigitPolicy policy) {
+        if (text == null || policy == null) {
+            throw new IllegalArgumentException("Text and policy cannot be null.");
+        }
+        int length = text.length();
+        int chunks = (length + TEXT_CHUNK - 1) / TEXT_CHUNK;
+        if (chunks <= 1) {
+            Tally tally = new Tally();
+            sumText(text, 0, length, policy, tally);
+            return tally.toResult();
+        }
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    Tally tally = new Tally();
+                    sumText(text, c * TEXT_CHUNK, Math.min(length, (c + 1) * TEXT_CHUNK), policy, tally);
+                    return tally;
+                })
+                .reduce(new Tally(), Tally::plus)
+                .toResult();
+    }
+
+    /**
+     * Reads a stream to its end. The stream is not closed.
+     *
+     * @param in The stream of ASCII or UTF-8 decimal text.
+     * @param policy How to treat non-digit characters.
+     * @return The digit sum of the stream.
+     * @throws IOException If reading fails.
+     * @throws IllegalArgumentException If an argument is null, or the policy is REJECT and the stream
+     *         contains an invalid byte.
+     */
+    public static Result sum(InputStream in, NonDigitPolicy policy) throws IOException {
+        if (in == null || policy == null) {
+            throw new IllegalArgumentException("Stream and policy cannot be null.");
+        }
+        byte[] buffer = new byte[STREAM_BUFFER];
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        Tally tally = new Tally();
+        long offset = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            sumBytes(view, 0, read, offset, policy, tally);
+            offset += read;
+        }
+        return tally.toResult();
+    }
+
+    /**
+     * Memory-maps a file chunk by chunk and sums the chunks in parallel.
+     *
+     * @param file The file of ASCII or UTF-8 decimal text.
+     * @param policy How to treat non-digit characters.
+     * @return The digit sum of the file.
+     * @throws IOException If the file cannot be opened or mapped.
+     * @throws IllegalArgumentException If an argument is null, or the policy is REJECT and the file
+     *         contains an invalid byte.
+     */
+    public static Result sum(Path file, NonDigitPolicy policy) throws IOException {
+        if (file == null || policy == null) {
+            throw new IllegalArgumentException("File and policy cannot be null.");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + FILE_CHUNK - 1) / FILE_CHUNK);
+            return IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> {
+                        long position = c * FILE_CHUNK;
+                        int length = (int) Math.min(FILE_CHUNK, size - position);
+                        try {
+                            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                            Tally tally = new Tally();
+                            sumBytes(chunk, 0, length, position, policy, tally);
+                            return tally;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .reduce(new Tally(), Tally::plus)
+                    .toResult();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Helper to sum text[from, to)
+    private static void sumText(CharSequence text, int from, int to, NonDigitPolicy policy, Tally tally) {
+        long sum = 0;
+        long digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sum += c - '0';
+                digits++;
+            } else if (policy == NonDigitPolicy.REJECT && !isAllowed(c, i)) {
+                throw new IllegalArgumentException("Invalid character '" + c + "' at index " + i);
+            }
+        }
+        tally.sum += sum;
+        tally.digits += digits;
+    }
+
+    // Helper to sum buffer[from, to), where offset is the position of buffer[0] in the whole input
+    private static void sumBytes(ByteBuffer buffer, int from, int to, long offset, NonDigitPolicy policy, Tally tally) {
+        long sum = 0;
+        long digits = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            // Every byte in 0x30..0x3F, and none of them above 0x39 (adding 6 would carry into the high nibble)
+            if ((word & HIGH_NIBBLES) == ZEROS && ((word + SIXES) & HIGH_NIBBLES) == ZEROS) {
+                sum += ((word & LOW_NIBBLES) * ONES) >>> 56;
+                digits += Long.BYTES;
+            } else {
+                for (int j = i; j < i + Long.BYTES; j++) {
+                    int d = buffer.get(j) - '0';
+                    if (d >= 0 && d <= 9) {
+                        sum += d;
+                        digits++;
+                    } else if (policy == NonDigitPolicy.REJECT) {
+                        checkByte(buffer.get(j), offset + j);
+                    }
+                }
+            }
+        }
+        for (; i < to; i++) {
+            int d = buffer.get(i) - '0';
+            if (d >= 0 && d <= 9) {
+                sum += d;
+                digits++;
+            } else if (policy == NonDigitPolicy.REJECT) {
+                checkByte(buffer.get(i), offset + i);
+            }
+        }
+        tally.sum += sum;
+        tally.digits += digits;
+    }
+
+    private static void checkByte(byte b, long position) {
+        if (!isAllowed((char) (b & 0xFF), position)) {
+            throw new IllegalArgumentException(String.format("Invalid byte 0x%02X at offset %d", b & 0xFF, position));
+        }
+    }
+
+    // Helper to sum a non-negative number below powers[level]. A padded number stands for exactly
+    // 18 * 2^level digits, leading zeros included; otherwise it is the leading part and has no leading zeros.
+    private static void sumChunks(BigInteger number, List<BigInteger> powers, int level, boolean padded, Tally tally) {
+        if (level == 0) {
+            long chunk = number.longValue();
+            tally.sum += RecursiveSumOfDigits.digitSum(chunk);
+            tally.digits += padded ? CHUNK_DIGITS : digitCount(chunk);
+            return;
+        }
+        BigInteger[] halves = number.divideAndRemainder(powers.get(level - 1));
+        if (!padded && halves[0].signum() == 0) {
+            sumChunks(halves[1], powers, level - 1, false, tally);
+            return;
+        }
+        sumChunks(halves[0], powers, level - 1, padded, tally);
+        sumChunks(halves[1], powers, level - 1, true, tally);
+    }
+
+    // Helper to count the decimal digits of a non-negative long; 0 has one digit
+    private static int digitCount(long number) {
+        int count = 1;
+        while (number >= 10) {
+            number /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    // Helper for the REJECT policy: whitespace anywhere, a sign only as the very first character
+    private static boolean isAllowed(char c, long position) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B'
+                || (position == 0 && (c == '+' || c == '-'));
+    }
+
+    // Mutable partial result of one chunk
+    private static final class Tally {
+        long sum;
+        long digits;
+
+        Tally plus(Tally other) {
+            Tally total = new Tally();
+            total.sum = sum + other.sum;
+            total.digits = digits + other.digits;
+            return total;
+        }
+
+        Result toResult() {
+            return new Result(sum, digits);
+        }
+    }
+}
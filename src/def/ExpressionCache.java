@@ -0,0 +1,217 @@
+package def;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ExpressionCache class is an opt-in, bounded cache of {@link CompiledExpression}s
+ * keyed by expression text. It sits in front of {@link RecursiveExpressionParser} so that
+ * frequently repeated expressions are parsed only once.
+ *
+ * Features:
+ * - Keys are normalised with the same whitespace stripping as the parser, so
+ *   {@code "a + 1"} and {@code "a+1"} share one entry.
+ * - Least-recently-used eviction once the configured maximum size is reached. The bound is
+ *   global: any entry can use any free room, however the keys hash.
+ * - Safe for heavy multi-threaded use: hits take no lock, and the statistics counters are
+ *   contention-free. Only misses serialise, on the insert that follows compilation.
+ * - Exposes hit, miss and eviction counts for sizing the cache in production.
+ *
+ * Note:
+ * - Recency is sampled: a hit records the number of inserts so far, and writes it only if
+ *   it changed, so hot entries do not turn every hit into a shared write. Entries used
+ *   between the same two inserts count as equally recent.
+ * - Victims are taken from a batch of the oldest entries, found by one scan every
+ *   maximumSize / 8 evictions; a batch entry used since the scan is spared. Eviction is
+ *   therefore approximate LRU at O(log n) amortized cost per insert.
+ * - Invalid expressions are never cached; they fail on every call.
+ */
+public final class ExpressionCache {
+
+    private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Number of inserts so far; the recency stamp of entries
+    private final AtomicLong clock = new AtomicLong();
+
+    // Guards inserts and eviction
+    private final Object evictionLock = new Object();
+    private final ArrayDeque<Entry> candidates = new ArrayDeque<>(); // Oldest entries at the last scan, oldest first
+
+    /**
+     * Creates a cache holding at most the given number of compiled expressions.
+     *
+     * @param maximumSize The maximum number of entries.
+     * @throws IllegalArgumentException If maximumSize is not positive.
+     */
+    public ExpressionCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive.");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the compiled form of an expression, compiling and caching it on a miss.
+     *
+     * @param expression The mathematical expression as a string.
+     * @return The compiled expression.
+     * @throws IllegalArgumentException If the expression is invalid or null.
+     */
+    public CompiledExpression compile(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Expression cannot be null or empty.");
+        }
+        String key = RecursiveExpressionParser.normalize(expression);
+        Entry entry = map.get(key);
+        if (entry != null) {
+            long now = clock.get();
+            if (entry.stamp != now) {
+                entry.stamp = now;
+            }
+            hits.increment();
+            return entry.compiled;
+        }
+        misses.increment();
+        // Compile outside the lock; a concurrent miss on the same key just does duplicate work
+        return insert(key, RecursiveExpressionParser.compile(key));
+    }
+
+    /**
+     * Evaluates an expression without variables, reusing its cached compiled form.
+     *
+     * @param expression The mathematical expression as a string.
+     * @return The evaluated result of the expression.
+     * @throws IllegalArgumentException If the expression is invalid or null.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    public double evaluate(String expression) {
+        return compile(expression).evaluate();
+    }
+
+    /**
+     * @return The number of lookups that found a cached expression.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to compile the expression.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries removed to make room for new ones.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The fraction of lookups that were hits, or 0 if there were no lookups yet.
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return The current number of cached expressions.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @return The configured maximum number of entries.
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Removes all entries. The statistics counters are left untouched.
+     */
+    public void clear() {
+        synchronized (evictionLock) {
+            map.clear();
+            candidates.clear();
+        }
+    }
+
+    // Helper to add a freshly compiled expression, evicting the least recently used entries beyond the maximum size
+    private CompiledExpression insert(String key, CompiledExpression compiled) {
+        synchronized (evictionLock) {
+            Entry added = new Entry(key, compiled, clock.incrementAndGet());
+            Entry existing = map.putIfAbsent(key, added);
+            if (existing != null) {
+                return existing.compiled;
+            }
+            while (map.size() > maximumSize) {
+                evictOne(added);
+            }
+            return compiled;
+        }
+    }
+
+    // Helper to evict one entry other than keep; caller holds evictionLock
+    private void evictOne(Entry keep) {
+        boolean rescanned = false;
+        while (true) {
+            if (candidates.isEmpty()) {
+                refillCandidates(keep);
+                rescanned = true;
+            }
+            Entry victim = candidates.poll();
+            if (map.get(victim.key) != victim) {
+                continue; // Already removed by clear()
+            }
+            if (victim.stamp != victim.queuedStamp && !rescanned) {
+                continue; // Used since it was queued; no longer among the oldest
+            }
+            map.remove(victim.key, victim);
+            evictions.increment();
+            return;
+        }
+    }
+
+    // Helper to queue the oldest entries, at least one and never keep; caller holds evictionLock
+    private void refillCandidates(Entry keep) {
+        Entry[] entries = map.values().toArray(new Entry[0]);
+        for (Entry entry : entries) {
+            entry.queuedStamp = entry.stamp;
+        }
+        Arrays.sort(entries, Comparator.comparingLong(entry -> entry.queuedStamp));
+        int batch = Math.max(1, maximumSize / 8);
+        for (int i = 0; i < entries.length && candidates.size() < batch; i++) {
+            if (entries[i] != keep) {
+                candidates.add(entries[i]);
+            }
+        }
+    }
+
+    // A cached expression with its recency stamp
+    private static final class Entry {
+        final String key;
+        final CompiledExpression compiled;
+        volatile long stamp; // Clock value at the latest sampled use
+        long queuedStamp;    // Stamp when last queued as a candidate; guarded by evictionLock
+
+        Entry(String key, CompiledExpression compiled, long stamp) {
+            this.key = key;
+            this.compiled = compiled;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package def;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The ExpressionFileEvaluator class evaluates a file of newline-separated expressions
+ * and writes one result per line to an output file.
+ *
+ * Features:
+ * - The input is memory-mapped and split into line-aligned chunks that are evaluated in parallel.
+ * - Results are written in input order, with only a bounded number of chunks in flight,
+ *   so memory use does not grow with the size of the file.
+ * - A line that fails to parse or evaluate produces an {@code ERROR: <message>} line
+ *   instead of aborting the run.
+ * - Lines are evaluated with the iterative parser, so nesting depth is limited only by line length.
+ * - Lines are read and results written as ISO-8859-1, so any byte of the input, including
+ *   non-ASCII ones quoted in error messages, round-trips to the output unchanged.
+ * - Runs as a command line tool and reports throughput in lines per second.
+ *
+ * Usage:
+ * - {@code java def.ExpressionFileEvaluator <input> <output> [threads]}
+ */
+public final class ExpressionFileEvaluator {
+
+    // Target size of one chunk of input; the real chunk ends at the next newline
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Counts reported at the end of a run.
+     */
+    public static final class Summary {
+        private final long lines;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Summary(long lines, long errors, long elapsedNanos) {
+            this.lines = lines;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long lines() {
+            return lines;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double linesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : lines * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Evaluated %d lines (%d errors) in %.3f s (%.0f lines/sec)",
+                    lines, errors, elapsedNanos / 1e9, linesPerSecond());
+        }
+    }
+
+    private ExpressionFileEvaluator() {
+    }
+
+    /**
+     * Evaluates every line of the input file and writes the results to the output file.
+     *
+     * @param input The file of newline-separated expressions.
+     * @param output The file to write one result per input line to; it is created or truncated.
+     * @param threads The number of worker threads.
+     * @return The line, error and timing counts of the run.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     * @throws IllegalArgumentException If threads is not positive.
+     */
+    public static Summary evaluateFile(Path input, Path output, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        long startNanos = System.nanoTime();
+        long lines = 0;
+        long errors = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             // Same charset as the input lines, so error messages echo any byte of a bad line unchanged
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.ISO_8859_1)) {
+            long size = channel.size();
+            long position = 0;
+            ArrayDeque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+            int maxInFlight = threads * 2;
+            while (position < size || !inFlight.isEmpty()) {
+                // Keep the workers busy, but never hold more than maxInFlight chunks in memory
+                while (position < size && inFlight.size() < maxInFlight) {
+                    long end = findChunkEnd(channel, position, size);
+                    MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                    inFlight.add(executor.submit(() -> evaluateChunk(chunk)));
+                    position = end;
+                }
+                ChunkResult result = await(inFlight.poll());
+                writer.write(result.text);
+                lines += result.lines;
+                errors += result.errors;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Summary(lines, errors, System.nanoTime() - startNanos);
+    }
+
+    // Helper to find the end (exclusive, just past a newline) of the chunk starting at position
+    private static long findChunkEnd(FileChannel channel, long position, long size) throws IOException {
+        long end = position + CHUNK_SIZE;
+        if (end >= size) {
+            return size;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (end < size) {
+            probe.clear();
+            int read = channel.read(probe, end);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    long chunkEnd = end + i + 1;
+                    if (chunkEnd - position > Integer.MAX_VALUE) {
+                        throw new IOException("Line starting near offset " + position + " is too long.");
+                    }
+                    return chunkEnd;
+                }
+            }
+            end += read;
+        }
+        return size;
+    }
+
+    // Helper to evaluate every line of one chunk
+    private static ChunkResult evaluateChunk(ByteBuffer chunk) {
+        StringBuilder text = new StringBuilder(chunk.remaining());
+        byte[] line = new byte[256];
+        long lines = 0;
+        long errors = 0;
+        int limit = chunk.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - lineStart;
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            chunk.get(lineStart, line, 0, length);
+            String expression = new String(line, 0, length, StandardCharsets.ISO_8859_1);
+            try {
+                // Stack-safe, so a deeply nested line cannot overflow the worker's stack
+                text.append(RecursiveExpressionParser.evaluateExpressionIterative(expression));
+            } catch (RuntimeException e) {
+                // Any failure of a single line is reported on that line, never through the executor
+                text.append("ERROR: ").append(e.getMessage() != null ? e.getMessage() : e.toString());
+                errors++;
+            }
+            text.append('\n');
+            lines++;
+            lineStart = lineEnd + 1;
+        }
+        return new ChunkResult(text.toString(), lines, errors);
+    }
+
+    // Helper to wait for a chunk, unwrapping worker failures
+    private static ChunkResult await(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while evaluating the file.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Chunk evaluation failed.", e.getCause());
+        }
+    }
+
+    // Output of one chunk, kept until all earlier chunks have been written
+    private static final class ChunkResult {
+        private final String text;
+        private final long lines;
+        private final long errors;
+
+        ChunkResult(String text, long lines, long errors) {
+            this.text = text;
+            this.lines = lines;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args The input file, the output file and optionally the number of threads
+     *             (defaults to the number of available processors).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java def.ExpressionFileEvaluator <input> <output> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Summary summary = evaluateFile(Paths.get(args[0]), Paths.get(args[1]), threads);
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,197 @@
+package def;
+
+/**
+ * The ExpressionLexer class splits a whitespace-free expression into tokens for
+ * {@link RecursiveExpressionParser}. It is a single forward cursor over the string:
+ * the current token is described by its type and its [start, end) range, so
+ * advancing never allocates.
+ *
+ * Tokens:
+ * - NUMBER: digits with an optional fraction and exponent, e.g. {@code 42}, {@code .5}, {@code 1e-3}.
+ * - IDENTIFIER: a letter or underscore followed by letters, digits or underscores.
+ * - OPERATOR: one of {@code + - * /}.
+ * - LEFT_PAREN / RIGHT_PAREN, and END once the input is exhausted.
+ */
+final class ExpressionLexer {
+
+    static final int END = 0;
+    static final int NUMBER = 1;
+    static final int IDENTIFIER = 2;
+    static final int OPERATOR = 3;
+    static final int LEFT_PAREN = 4;
+    static final int RIGHT_PAREN = 5;
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String expr;
+    private int type;
+    private int start;
+    private int end;
+
+    // Value of the current NUMBER token
+    private double numberValue;
+    private long integerValue;
+    private boolean integerLiteral;
+
+    ExpressionLexer(String expr) {
+        this.expr = expr;
+        advance();
+    }
+
+    /**
+     * Moves to the next token.
+     *
+     * @throws IllegalArgumentException If the next character cannot start a token.
+     */
+    void advance() {
+        start = end;
+        if (start >= expr.length()) {
+            type = END;
+            return;
+        }
+        char c = expr.charAt(start);
+        end = start + 1;
+        switch (c) {
+            case '+', '-', '*', '/' -> type = OPERATOR;
+            case '(' -> type = LEFT_PAREN;
+            case ')' -> type = RIGHT_PAREN;
+            default -> {
+                if (isDigit(c) || c == '.') {
+                    type = NUMBER;
+                    end = scanNumber(start);
+                    parseNumber();
+                } else if (Character.isLetter(c) || c == '_') {
+                    type = IDENTIFIER;
+                    while (end < expr.length() && (Character.isLetterOrDigit(expr.charAt(end)) || expr.charAt(end) == '_')) {
+                        end++;
+                    }
+                } else {
+                    throw new IllegalArgumentException("Invalid character '" + c + "' at index " + start);
+                }
+            }
+        }
+    }
+
+    int type() {
+        return type;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    // The current character, meaningful for single-character tokens
+    char symbol() {
+        return expr.charAt(start);
+    }
+
+    String text() {
+        return expr.substring(start, end);
+    }
+
+    // The value of the current NUMBER token
+    double numberValue() {
+        return numberValue;
+    }
+
+    // Whether the current NUMBER token is a plain digit string that fits in a long
+    boolean isIntegerLiteral() {
+        return integerLiteral;
+    }
+
+    long integerValue() {
+        return integerValue;
+    }
+
+    // Helper to parse the current NUMBER token straight from the character range.
+    // Digits are accumulated into a long mantissa; when the mantissa fits in 53 bits and the
+    // decimal exponent is within +-22, a single multiplication or division by an exact power
+    // of ten is correctly rounded, so only the remaining hard cases go through Double.parseDouble.
+    private void parseNumber() {
+        long mantissa = 0;
+        boolean mantissaOverflow = false;
+        int digits = 0;
+        int fractionDigits = 0;
+        int dots = 0;
+        int exponent = 0;
+        boolean hasExponent = false;
+        int i = start;
+        for (; i < end; i++) {
+            char c = expr.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (isDigit(c)) {
+                digits++;
+                if (dots > 0) {
+                    fractionDigits++;
+                }
+                int digit = c - '0';
+                if (mantissaOverflow || mantissa > (Long.MAX_VALUE - digit) / 10) {
+                    mantissaOverflow = true;
+                } else {
+                    mantissa = mantissa * 10 + digit;
+                }
+            } else {
+                break; // Start of the exponent
+            }
+        }
+        if (i < end) {
+            hasExponent = true;
+            boolean negative = expr.charAt(++i) == '-';
+            if (expr.charAt(i) == '+' || expr.charAt(i) == '-') {
+                i++;
+            }
+            for (; i < end; i++) {
+                exponent = Math.min(exponent * 10 + (expr.charAt(i) - '0'), 100_000); // Clamp absurd exponents
+            }
+            exponent = negative ? -exponent : exponent;
+        }
+        if (digits == 0 || dots > 1) {
+            throw new IllegalArgumentException("Invalid number: " + text());
+        }
+
+        integerLiteral = dots == 0 && !hasExponent && !mantissaOverflow;
+        integerValue = integerLiteral ? mantissa : 0;
+
+        int scale = exponent - fractionDigits;
+        if (!mantissaOverflow && mantissa <= (1L << 53) && scale >= -22 && scale <= 22) {
+            numberValue = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            numberValue = Double.parseDouble(text()); // Hard case: too many digits or a large exponent
+        }
+    }
+
+    // Helper to find the end of a numeric literal starting at the given index
+    private int scanNumber(int i) {
+        int length = expr.length();
+        while (i < length && (isDigit(expr.charAt(i)) || expr.charAt(i) == '.')) {
+            i++;
+        }
+        // Optional exponent, only consumed when it is followed by at least one digit
+        if (i < length && (expr.charAt(i) == 'e' || expr.charAt(i) == 'E')) {
+            int j = i + 1;
+            if (j < length && (expr.charAt(j) == '+' || expr.charAt(j) == '-')) {
+                j++;
+            }
+            if (j < length && isDigit(expr.charAt(j))) {
+                while (j < length && isDigit(expr.charAt(j))) {
+                    j++;
+                }
+                i = j;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,286 @@
+package def;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ExpressionOptimizer class rewrites a {@link CompiledExpression} into an equivalent one
+ * with fewer instructions. It runs between parsing and evaluation and never changes a result:
+ * optimized and unoptimized expressions produce bit-for-bit identical values and throw the
+ * same exceptions.
+ *
+ * Passes:
+ * - Constant folding: operators whose operands are both constants are computed once.
+ *   A constant division by zero is left in place so that it still fails at evaluation.
+ * - Algebraic simplification of identities that are exact under IEEE 754:
+ *   {@code x*1}, {@code 1*x}, {@code x/1}, {@code x-0} and {@code x+(-0.0)}.
+ *   Identities that are not exact are deliberately skipped: {@code x+0} turns -0.0 into 0.0,
+ *   and {@code x*0} is wrong for NaN, infinities and negative x.
+ * - Common sub-expression elimination: structurally identical sub-expressions are computed
+ *   once, stored in a shared slot and reloaded wherever they occur again.
+ *
+ * Note:
+ * - All passes are iterative, so arbitrarily deep expressions cannot overflow the call stack.
+ * - Folding follows double semantics, so the optimized expression supports double
+ *   evaluation only; use the unoptimized form with {@link CompiledExpression#evaluateLong(long...)}.
+ */
+public final class ExpressionOptimizer {
+
+    /**
+     * The optimized expression and how much smaller it is.
+     */
+    public static final class Result {
+        private final CompiledExpression expression;
+        private final int removedInstructions;
+
+        Result(CompiledExpression expression, int removedInstructions) {
+            this.expression = expression;
+            this.removedInstructions = removedInstructions;
+        }
+
+        /**
+         * @return The optimized expression.
+         */
+        public CompiledExpression expression() {
+            return expression;
+        }
+
+        /**
+         * @return How many fewer instructions the optimized expression has than the original one.
+         *         Shared sub-expressions count only the instructions they save, net of the slot
+         *         stores and loads that replace them; repeated variables and constants count nothing.
+         */
+        public int removedInstructions() {
+            return removedInstructions;
+        }
+    }
+
+    private ExpressionOptimizer() {
+    }
+
+    /**
+     * Optimizes a compiled expression.
+     *
+     * @param expression The expression to optimize.
+     * @return The optimized expression together with the number of instructions removed.
+     */
+    public static Result optimize(CompiledExpression expression) {
+        Graph graph = new Graph(expression);
+        int root = graph.build();
+        CompiledExpression optimized = graph.emit(root, expression.source(), expression.variableNames());
+        return new Result(optimized, expression.instructionCount() - optimized.instructionCount());
+    }
+
+    // Expression DAG in parallel arrays. Nodes are hash-consed, so equal sub-expressions share an id.
+    private static final class Graph {
+        private final CompiledExpression source;
+        private byte[] ops;
+        private int[] left;   // Left child, or the variable index for LOAD_VARIABLE
+        private int[] right;  // Right child
+        private double[] values; // Constant value for PUSH_CONSTANT
+        private int size;
+        private final Map<NodeKey, Integer> ids = new HashMap<>();
+
+        Graph(CompiledExpression source) {
+            this.source = source;
+            int capacity = Math.max(4, source.instructionCount());
+            ops = new byte[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            values = new double[capacity];
+        }
+
+        // Builds the folded, simplified and shared DAG from the postfix instructions; returns the root
+        int build() {
+            int[] stack = new int[Math.max(1, source.maxDepth())];
+            int top = -1;
+            for (int pc = 0; pc < source.instructionCount(); pc++) {
+                byte op = source.opcode(pc);
+                switch (op) {
+                    case CompiledExpression.PUSH_CONSTANT -> stack[++top] = constant(source.constant(source.operand(pc)));
+                    case CompiledExpression.LOAD_VARIABLE -> stack[++top] = node(op, source.operand(pc), 0, 0);
+                    case CompiledExpression.STORE_SLOT, CompiledExpression.LOAD_SLOT ->
+                            throw new IllegalArgumentException("Expression is already optimized.");
+                    default -> {
+                        int b = stack[top--];
+                        int a = stack[top];
+                        stack[top] = binary(op, a, b);
+                    }
+                }
+            }
+            return stack[0];
+        }
+
+        // Helper to create (or reuse) an operator node after folding and simplification
+        private int binary(byte op, int a, int b) {
+            boolean constantA = ops[a] == CompiledExpression.PUSH_CONSTANT;
+            boolean constantB = ops[b] == CompiledExpression.PUSH_CONSTANT;
+            if (constantA && constantB && !(op == CompiledExpression.DIVIDE && values[b] == 0)) {
+                return constant(apply(op, values[a], values[b]));
+            }
+            if (constantB && isIdentity(op, values[b])) {
+                return a;
+            }
+            if (constantA && op == CompiledExpression.MULTIPLY && values[a] == 1.0) {
+                return b;
+            }
+            return node(op, a, b, 0);
+        }
+
+        // x*1, x/1, x-(+0.0) and x+(-0.0) return x unchanged for every x, including -0.0, NaN and infinities
+        private static boolean isIdentity(byte op, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            return switch (op) {
+                case CompiledExpression.MULTIPLY, CompiledExpression.DIVIDE -> value == 1.0;
+                case CompiledExpression.SUBTRACT -> bits == 0L;
+                case CompiledExpression.ADD -> bits == Double.doubleToRawLongBits(-0.0);
+                default -> false;
+            };
+        }
+
+        private static double apply(byte op, double a, double b) {
+            return switch (op) {
+                case CompiledExpression.ADD -> a + b;
+                case CompiledExpression.SUBTRACT -> a - b;
+                case CompiledExpression.MULTIPLY -> a * b;
+                case CompiledExpression.DIVIDE -> a / b;
+                default -> throw new IllegalStateException("Invalid opcode: " + op);
+            };
+        }
+
+        private int constant(double value) {
+            return node(CompiledExpression.PUSH_CONSTANT, 0, 0, Double.doubleToRawLongBits(value));
+        }
+
+        // Helper to hash-cons a node: identical (op, children, value) tuples get the same id
+        private int node(byte op, int a, int b, long valueBits) {
+            NodeKey key = new NodeKey(op, a, b, valueBits);
+            Integer existing = ids.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == ops.length) {
+                int capacity = size * 2;
+                ops = Arrays.copyOf(ops, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            ops[size] = op;
+            left[size] = a;
+            right[size] = b;
+            values[size] = Double.longBitsToDouble(valueBits);
+            ids.put(key, size);
+            return size++;
+        }
+
+        private boolean isOperator(int node) {
+            return ops[node] != CompiledExpression.PUSH_CONSTANT && ops[node] != CompiledExpression.LOAD_VARIABLE;
+        }
+
+        // Helper to count how many times each node is referenced from the root
+        private int[] referenceCounts(int root) {
+            int[] counts = new int[size];
+            int[] stack = new int[size + 1];
+            int top = 0;
+            stack[0] = root;
+            counts[root] = 1;
+            while (top >= 0) {
+                int node = stack[top--];
+                if (isOperator(node)) {
+                    // Children are only expanded on their first reference
+                    if (counts[left[node]]++ == 0) {
+                        stack[++top] = left[node];
+                    }
+                    if (counts[right[node]]++ == 0) {
+                        stack[++top] = right[node];
+                    }
+                }
+            }
+            return counts;
+        }
+
+        // Emits postfix instructions; shared operator nodes are computed once and reloaded from a slot
+        CompiledExpression emit(int root, String text, String[] variables) {
+            int[] counts = referenceCounts(root);
+            int[] slotOf = new int[size];
+            Arrays.fill(slotOf, -1);
+            boolean[] emitted = new boolean[size];
+            int slotCount = 0;
+
+            // Every operator emits at most itself and a STORE_SLOT, plus one load per child reference
+            byte[] outOps = new byte[size * 4 + 1];
+            int[] outOperands = new int[size * 4 + 1];
+            double[] constants = new double[size * 2 + 1];
+            int constantCount = 0;
+            int pc = 0;
+
+            // Explicit post-order traversal: a frame is (node << 1) | afterChildren
+            long[] frames = new long[size * 2 + 2];
+            int top = 0;
+            frames[0] = (long) root << 1;
+            while (top >= 0) {
+                long frame = frames[top--];
+                int node = (int) (frame >>> 1);
+                boolean afterChildren = (frame & 1) != 0;
+                if (!afterChildren) {
+                    if (emitted[node]) {
+                        outOps[pc] = CompiledExpression.LOAD_SLOT;
+                        outOperands[pc++] = slotOf[node];
+                    } else if (ops[node] == CompiledExpression.PUSH_CONSTANT) {
+                        constants[constantCount] = values[node];
+                        outOps[pc] = CompiledExpression.PUSH_CONSTANT;
+                        outOperands[pc++] = constantCount++;
+                    } else if (ops[node] == CompiledExpression.LOAD_VARIABLE) {
+                        outOps[pc] = CompiledExpression.LOAD_VARIABLE;
+                        outOperands[pc++] = left[node];
+                    } else {
+                        frames[++top] = ((long) node << 1) | 1;
+                        frames[++top] = (long) right[node] << 1;
+                        frames[++top] = (long) left[node] << 1; // Popped first: left before right
+                    }
+                } else {
+                    outOps[pc++] = ops[node];
+                    if (counts[node] > 1) {
+                        slotOf[node] = slotCount++;
+                        emitted[node] = true;
+                        outOps[pc] = CompiledExpression.STORE_SLOT;
+                        outOperands[pc++] = slotOf[node];
+                    }
+                }
+            }
+            return new CompiledExpression(text, Arrays.copyOf(outOps, pc), Arrays.copyOf(outOperands, pc),
+                    Arrays.copyOf(constants, constantCount), variables);
+        }
+    }
+
+    // Hash-consing key for a node
+    private static final class NodeKey {
+        private final byte op;
+        private final int a;
+        private final int b;
+        private final long valueBits;
+
+        NodeKey(byte op, int a, int b, long valueBits) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+            this.valueBits = valueBits;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof NodeKey)) {
+                return false;
+            }
+            NodeKey key = (NodeKey) other;
+            return op == key.op && a == key.a && b == key.b && valueBits == key.valueBits;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((op * 31 + a) * 31 + b) * 31 + Long.hashCode(valueBits);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package def;
+
+/**
+ * The Instrumentation class holds the process-wide {@link RecursionListener}. Instrumentation is
+ * off by default: every instrumented method reads one static field and, finding it null, runs
+ * exactly as before, so disabled telemetry costs a single predictable branch.
+ *
+ * Usage:
+ * - {@code Instrumentation.install(new MetricsListener())} to collect counters and histograms.
+ * - {@code Instrumentation.uninstall()} to switch telemetry off again.
+ */
+public final class Instrumentation {
+
+    // Read directly by the instrumented classes; null when instrumentation is off
+    static volatile RecursionListener listener;
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Installs a listener, replacing any previous one.
+     *
+     * @param newListener The listener to notify.
+     * @throws IllegalArgumentException If the listener is null.
+     */
+    public static void install(RecursionListener newListener) {
+        if (newListener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        listener = newListener;
+    }
+
+    /**
+     * Removes the installed listener, if any.
+     */
+    public static void uninstall() {
+        listener = null;
+    }
+
+    /**
+     * @return The installed listener, or null if instrumentation is off.
+     */
+    public static RecursionListener current() {
+        return listener;
+    }
+
+    // Per-call scratch state of an instrumented call
+    static final class Probe {
+        int maxDepth;
+        long comparisons;
+        long traceNanos; // Time spent describing and reporting nodes, left out of the reported latency
+
+        void visit(int depth) {
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package def;
+
+import java.util.Arrays;
+
+/**
+ * The LearnedSortedIndex class searches a sorted {@code long[]} with a small piecewise-linear
+ * model of the key distribution, in the style of a learned index. For near-uniform keys such
+ * as timestamps or sequential ids, the model predicts a key's position to within a few slots,
+ * so a lookup costs one model evaluation plus a tiny local search instead of log2(n) probes.
+ *
+ * Build:
+ * - A single greedy pass ("shrinking cone") over the distinct keys cuts them into linear
+ *   segments, each predicting the first position of every one of its keys to within a
+ *   requested error bound.
+ * - The error actually achieved is then measured over every distinct key and reported by
+ *   {@link #maxError()}; lookups use that measured bound, not the requested one.
+ * - If the keys need more than one segment per eight of them, the model is not worth its memory
+ *   and the index falls back to a plain branch-free binary search; see {@link #usesModel()}.
+ *
+ * Lookup:
+ * - Find the segment (binary search over the segment start keys), predict a position and
+ *   binary-search the window of +/- maxError around it.
+ * - The window is verified against its neighbours. Keys that fall between the data points
+ *   (e.g. absent keys after a long run of duplicates) can miss it, in which case an exponential
+ *   search from the window edge finds the answer.
+ *
+ * Note:
+ * - Every step is logarithmic at worst, so no input is slower than O(log n).
+ * - The array is copied; later changes to it are not seen.
+ */
+public final class LearnedSortedIndex {
+
+    private static final int DEFAULT_MAX_ERROR = 32;
+
+    // Minimum average number of distinct keys per segment for the model to be kept
+    private static final int MIN_KEYS_PER_SEGMENT = 8;
+
+    private final long[] keys;
+    private final long[] segmentKeys;
+    private final int[] segmentPositions;
+    private final double[] segmentSlopes;
+    private final int maxError;
+
+    private LearnedSortedIndex(long[] keys, int requestedError) {
+        this.keys = keys;
+        int n = keys.length;
+        long[] startKeys = new long[Math.max(1, n)];
+        int[] startPositions = new int[startKeys.length];
+        double[] slopes = new double[startKeys.length];
+        int segments = 0;
+        int distinct = 0;
+
+        // Shrinking cone: the slopes that keep every point of the segment within the error bound
+        long originKey = 0;
+        int originPosition = 0;
+        double slopeLow = 0;
+        double slopeHigh = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                continue; // Only the first position of each key is modelled
+            }
+            distinct++;
+            if (segments > 0) {
+                double dx = distance(originKey, keys[i]);
+                double low = (i - requestedError - originPosition) / dx;
+                double high = (i + requestedError - originPosition) / dx;
+                if (low <= slopeHigh && high >= slopeLow) {
+                    slopeLow = Math.max(slopeLow, low);
+                    slopeHigh = Math.min(slopeHigh, high);
+                    continue;
+                }
+                slopes[segments - 1] = slopeOf(slopeLow, slopeHigh);
+            }
+            startKeys[segments] = keys[i];
+            startPositions[segments] = i;
+            segments++;
+            originKey = keys[i];
+            originPosition = i;
+            slopeLow = 0;
+            slopeHigh = Double.POSITIVE_INFINITY;
+        }
+        if (segments > 0) {
+            slopes[segments - 1] = slopeOf(slopeLow, slopeHigh);
+        }
+
+        if ((long) segments * MIN_KEYS_PER_SEGMENT > distinct) {
+            segmentKeys = null; // Model rejected: plain binary search
+            segmentPositions = null;
+            segmentSlopes = null;
+            maxError = -1;
+            return;
+        }
+        segmentKeys = Arrays.copyOf(startKeys, segments);
+        segmentPositions = Arrays.copyOf(startPositions, segments);
+        segmentSlopes = Arrays.copyOf(slopes, segments);
+
+        // Measure the error the finished model actually makes, rounding included
+        int measured = 0;
+        int segment = 0;
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                continue;
+            }
+            while (segment + 1 < segments && segmentKeys[segment + 1] <= keys[i]) {
+                segment++;
+            }
+            measured = Math.max(measured, Math.abs(predict(segment, keys[i]) - i));
+        }
+        maxError = measured;
+    }
+
+    /**
+     * Builds an index whose segments aim for a maximum position error of 32.
+     *
+     * @param sorted The keys in ascending order; duplicates are allowed.
+     * @return The index.
+     * @throws IllegalArgumentException If the array is null or not sorted.
+     */
+    public static LearnedSortedIndex of(long[] sorted) {
+        return of(sorted, DEFAULT_MAX_ERROR);
+    }
+
+    /**
+     * Builds an index with the given target error. A smaller error means smaller search windows
+     * but more segments.
+     *
+     * @param sorted The keys in ascending order; duplicates are allowed.
+     * @param maxError The largest position error a segment may make, at least 1.
+     * @return The index.
+     * @throws IllegalArgumentException If the array is null or not sorted, or the error is not positive.
+     */
+    public static LearnedSortedIndex of(long[] sorted, int maxError) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Array cannot be null.");
+        }
+        if (maxError <= 0) {
+            throw new IllegalArgumentException("Maximum error must be positive.");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] > sorted[i]) {
+                throw new IllegalArgumentException("Array must be sorted; index " + i + " is out of order.");
+            }
+        }
+        return new LearnedSortedIndex(sorted.clone(), maxError);
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return Whether lookups use the model; false if the distribution was too irregular to fit.
+     */
+    public boolean usesModel() {
+        return segmentKeys != null;
+    }
+
+    /**
+     * @return The number of linear segments in the model, or 0 if no model is used.
+     */
+    public int segmentCount() {
+        return segmentKeys == null ? 0 : segmentKeys.length;
+    }
+
+    /**
+     * @return The largest distance between the predicted and the actual position of any key,
+     *         as measured after the build, or -1 if no model is used.
+     */
+    public int maxError() {
+        return maxError;
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The position of the first key that is not less than the given key, in [0, size].
+     */
+    public int lowerBound(long key) {
+        return search(key, false);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The position of the first key that is greater than the given key, in [0, size].
+     */
+    public int upperBound(long key) {
+        return search(key, true);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The position of the first occurrence of the key, or -1 if it is absent.
+     */
+    public int indexOf(long key) {
+        int index = lowerBound(key);
+        return index < keys.length && keys[index] == key ? index : -1;
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return Whether the index contains the key.
+     */
+    public boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    // Helper to find the first position whose key is >= key (or > key when upper is set)
+    private int search(long key, boolean upper) {
+        int n = keys.length;
+        if (segmentKeys == null) {
+            return upper ? BinarySearchKernels.upperBound(keys, key) : BinarySearchKernels.lowerBound(keys, key);
+        }
+        int segment = BinarySearchKernels.upperBound(segmentKeys, key) - 1;
+        if (segment < 0) {
+            return 0; // Smaller than every key
+        }
+        int predicted = predict(segment, key);
+        int lo = Math.max(0, predicted - maxError);
+        int hi = (int) Math.min(n, (long) predicted + maxError + 1);
+
+        // The answer is in [lo, hi] iff keys[lo - 1] is before and keys[hi] is not; otherwise gallop outwards
+        int step = 1;
+        while (lo > 0 && !before(keys[lo - 1], key, upper)) {
+            hi = lo - 1;
+            lo = (int) Math.max(0, (long) lo - 1 - step);
+            step <<= 1;
+        }
+        while (hi < n && before(keys[hi], key, upper)) {
+            lo = hi + 1;
+            hi = (int) Math.min(n, (long) hi + 1 + step);
+            step <<= 1;
+        }
+        return upper ? BinarySearchKernels.upperBound(keys, lo, hi, key) : BinarySearchKernels.lowerBound(keys, lo, hi, key);
+    }
+
+    private static boolean before(long element, long key, boolean upper) {
+        return upper ? element <= key : element < key;
+    }
+
+    // Helper to evaluate a segment, clamped to [0, size]
+    private int predict(int segment, long key) {
+        double position = segmentPositions[segment] + segmentSlopes[segment] * distance(segmentKeys[segment], key);
+        return (int) Math.min(keys.length, Math.max(0, Math.round(position)));
+    }
+
+    private static double slopeOf(double low, double high) {
+        return high == Double.POSITIVE_INFINITY ? low : (low + high) / 2;
+    }
+
+    // Helper to compute to - from for to >= from without overflow; the difference is an unsigned 64-bit value
+    private static double distance(long from, long to) {
+        long difference = to - from;
+        return difference >= 0 ? difference : (double) (difference >>> 1) * 2.0 + (difference & 1);
+    }
+}
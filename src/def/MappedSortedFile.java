@@ -0,0 +1,310 @@
+package def;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MappedSortedFile class binary-searches a sorted file of fixed-length records directly
+ * in memory-mapped pages, for data sets far larger than the heap (or than any Java array).
+ *
+ * Features:
+ * - Files of any size: the file is mapped in segments of at most 1 GB, each holding a whole
+ *   number of records, so no record straddles two segments.
+ * - Fixed-width {@code int} or {@code long} keys at any offset within the record, in either byte order.
+ * - {@code lowerBound}, {@code upperBound}, {@code indexOf}, {@code equalRange} and record access
+ *   by index; keys are read in place, nothing is copied onto the heap.
+ * - An optional in-memory sparse fence index (see {@link #buildFenceIndex(int)}) that narrows
+ *   each lookup to one small block of the file, so only a few pages are touched per lookup.
+ *
+ * Note:
+ * - Heap use is independent of the file size: a handful of buffer objects plus the fence index,
+ *   whose size the caller chooses.
+ * - Records must be sorted by key in ascending signed order.
+ * - Mappings are released by the garbage collector; {@link #close()} only drops the references.
+ * - Lookups are safe from many threads once {@link #buildFenceIndex(int)} is done; {@link #close()} is not
+ *   safe to call while lookups are in flight.
+ */
+public final class MappedSortedFile implements Closeable {
+
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final int recordSize;
+    private final int keyOffset;
+    private final int keyWidth;
+    private final long recordCount;
+    private final long recordsPerSegment;
+    private MappedByteBuffer[] segments;
+
+    // Sparse fence index: fenceKeys[i] is the key of record i * fenceStride
+    private volatile long[] fenceKeys;
+    private volatile long fenceStride;
+
+    private MappedSortedFile(Path file, int recordSize, int keyOffset, int keyWidth, ByteOrder order) throws IOException {
+        if (recordSize <= 0 || keyOffset < 0 || (keyWidth != Integer.BYTES && keyWidth != Long.BYTES)
+                || keyOffset + keyWidth > recordSize) {
+            throw new IllegalArgumentException("Invalid record layout: recordSize=" + recordSize
+                    + ", keyOffset=" + keyOffset + ", keyWidth=" + keyWidth);
+        }
+        this.recordSize = recordSize;
+        this.keyOffset = keyOffset;
+        this.keyWidth = keyWidth;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % recordSize != 0) {
+                throw new IllegalArgumentException("File size " + size + " is not a multiple of the record size " + recordSize);
+            }
+            recordCount = size / recordSize;
+            recordsPerSegment = Math.max(1, MAX_SEGMENT_BYTES / recordSize);
+            long segmentBytes = recordsPerSegment * recordSize;
+            int segmentCount = (int) ((size + segmentBytes - 1) / segmentBytes);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long position = s * segmentBytes;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentBytes, size - position));
+                segments[s].order(order);
+            }
+        }
+    }
+
+    /**
+     * Opens a sorted file of fixed-length records.
+     *
+     * @param file The file to map.
+     * @param recordSize The length of one record in bytes.
+     * @param keyOffset The offset of the key within a record.
+     * @param keyWidth The key width in bytes: 4 for int keys, 8 for long keys.
+     * @param order The byte order of the keys.
+     * @return The mapped file.
+     * @throws IOException If the file cannot be opened or mapped.
+     * @throws IllegalArgumentException If the layout is invalid or the file size is not a multiple of the record size.
+     */
+    public static MappedSortedFile open(Path file, int recordSize, int keyOffset, int keyWidth, ByteOrder order)
+            throws IOException {
+        return new MappedSortedFile(file, recordSize, keyOffset, keyWidth, order);
+    }
+
+    /**
+     * Opens a sorted file of big-endian long keys, as written by {@link java.io.DataOutputStream#writeLong(long)}.
+     *
+     * @param file The file to map.
+     * @return The mapped file.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public static MappedSortedFile openLongKeys(Path file) throws IOException {
+        return new MappedSortedFile(file, Long.BYTES, 0, Long.BYTES, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Samples the keys into a small in-memory fence index. Afterwards every lookup first
+     * searches the fence keys on the heap and then only one block of about
+     * {@code recordCount / maxEntries} records in the file.
+     *
+     * @param maxEntries The maximum number of fence keys to keep in memory.
+     * @throws IllegalArgumentException If maxEntries is not positive.
+     */
+    public void buildFenceIndex(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Fence index must have at least one entry.");
+        }
+        long stride = Math.max(1, (recordCount + maxEntries - 1) / maxEntries);
+        long[] keys = new long[(int) ((recordCount + stride - 1) / stride)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyAt(i * stride);
+        }
+        fenceStride = stride;
+        fenceKeys = keys; // Published last; readers check fenceKeys first
+    }
+
+    /**
+     * @return The number of records in the file.
+     */
+    public long recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @param index The record index.
+     * @return The key of the record.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public long keyAt(long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " out of range [0, " + recordCount + ")");
+        }
+        return key(index);
+    }
+
+    /**
+     * Copies one record into a caller-supplied buffer.
+     *
+     * @param index The record index.
+     * @param destination A buffer of at least the record size.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public void readRecord(long index, byte[] destination) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " out of range [0, " + recordCount + ")");
+        }
+        MappedByteBuffer segment = segments[(int) (index / recordsPerSegment)];
+        segment.get((int) ((index % recordsPerSegment) * recordSize), destination, 0, recordSize);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The index of the first record whose key is not less than the given key, in [0, recordCount].
+     */
+    public long lowerBound(long key) {
+        long[] fences = fenceKeys;
+        if (fences == null) {
+            return lowerBound(0, recordCount, key);
+        }
+        // First fence that is not less than the key; the answer lies in the block just before it
+        int fence = BinarySearchKernels.lowerBound(fences, key);
+        if (fence == 0) {
+            return 0;
+        }
+        long stride = fenceStride;
+        return lowerBound((fence - 1) * stride + 1, Math.min(fence * stride, recordCount), key);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The index of the first record whose key is greater than the given key, in [0, recordCount].
+     */
+    public long upperBound(long key) {
+        long[] fences = fenceKeys;
+        if (fences == null) {
+            return upperBound(0, recordCount, key);
+        }
+        int fence = BinarySearchKernels.upperBound(fences, key);
+        if (fence == 0) {
+            return 0;
+        }
+        long stride = fenceStride;
+        return upperBound((fence - 1) * stride + 1, Math.min(fence * stride, recordCount), key);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The index of the first record with the key, or -1 if there is none.
+     */
+    public long indexOf(long key) {
+        long index = lowerBound(key);
+        return index < recordCount && key(index) == key ? index : -1;
+    }
+
+    /**
+     * Finds the half-open range [from, to) of records with the key.
+     *
+     * @param key The value to search for.
+     * @return The range of record indices; empty (from == to) if there are no such records.
+     *
+     * Note:
+     * - Record indices are longs, so the range is not packed into one long like
+     *   {@link RecursiveBinarySearch#equalRange(int[], int)}; files of 16 GB of long keys already
+     *   hold more than Integer.MAX_VALUE records.
+     */
+    public Range equalRange(long key) {
+        return new Range(lowerBound(key), upperBound(key));
+    }
+
+    /**
+     * Releases the references to the mapped segments. Any further lookup fails.
+     *
+     * Note:
+     * - Not thread-safe with respect to lookups: call it only once every reader is done with the file.
+     *   A lookup racing with close may either complete against the old mapping or fail with an
+     *   exception; it never reads unmapped memory, because mappings are only released by the garbage collector.
+     */
+    @Override
+    public void close() {
+        segments = new MappedByteBuffer[0];
+        fenceKeys = null;
+    }
+
+    /**
+     * A half-open range [from, to) of record indices.
+     */
+    public static final class Range {
+        private final long from;
+        private final long to;
+
+        /**
+         * @param from The first index of the range (inclusive).
+         * @param to The end of the range (exclusive).
+         * @throws IllegalArgumentException If from is negative or greater than to.
+         */
+        public Range(long from, long to) {
+            if (from < 0 || from > to) {
+                throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ")");
+            }
+            this.from = from;
+            this.to = to;
+        }
+
+        public long from() {
+            return from;
+        }
+
+        public long to() {
+            return to;
+        }
+
+        public long length() {
+            return to - from;
+        }
+
+        public boolean isEmpty() {
+            return from == to;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Range range && range.from == from && range.to == to;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(from) * 31 + Long.hashCode(to);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + from + ", " + to + ")";
+        }
+    }
+
+    // Helper to read a key without bounds checks
+    private long key(long index) {
+        MappedByteBuffer segment = segments[(int) (index / recordsPerSegment)];
+        int position = (int) ((index % recordsPerSegment) * recordSize) + keyOffset;
+        return keyWidth == Long.BYTES ? segment.getLong(position) : segment.getInt(position);
+    }
+
+    private long lowerBound(long from, long to, long key) {
+        long base = from;
+        long n = to - from;
+        while (n > 1) {
+            long half = n >>> 1;
+            base = key(base + half) < key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && key(base) < key ? base + 1 : base;
+    }
+
+    private long upperBound(long from, long to, long key) {
+        long base = from;
+        long n = to - from;
+        while (n > 1) {
+            long half = n >>> 1;
+            base = key(base + half) <= key ? base + half : base;
+            n -= half;
+        }
+        return n == 1 && key(base) <= key ? base + 1 : base;
+    }
+}
@@ -0,0 +1,188 @@
+package def;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The MetricsListener class is a ready-made {@link RecursionListener} that aggregates telemetry
+ * per operation, for export to a metrics system or for ad-hoc inspection.
+ *
+ * Features:
+ * - Call counts and a latency histogram with power-of-two nanosecond buckets.
+ * - The maximum recursion or nesting depth seen, to spot inputs that approach stack limits.
+ * - Total and average key comparisons per call for the searches.
+ * - Error counts by exception type.
+ * - An optional trace sink receiving one structured line per visited node, e.g.
+ *   {@code operation=sumOfDigits depth=2 node=digit 4}.
+ *
+ * Note:
+ * - All counters are contention-free and safe to update from many threads.
+ * - Tracing describes every node and is meant for debugging single calls, not for production traffic.
+ */
+public final class MetricsListener implements RecursionListener {
+
+    // Bucket i counts calls that took [2^(i-1), 2^i) nanoseconds; bucket 0 counts 0 ns
+    private static final int BUCKETS = 64;
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Consumer<String> traceSink;
+
+    /**
+     * Creates a listener that collects metrics without tracing.
+     */
+    public MetricsListener() {
+        this.traceSink = null;
+    }
+
+    /**
+     * Creates a listener that collects metrics and sends one line per visited node to a sink.
+     *
+     * @param traceSink Receives the trace lines, on the caller's thread.
+     * @throws IllegalArgumentException If the sink is null.
+     */
+    public MetricsListener(Consumer<String> traceSink) {
+        if (traceSink == null) {
+            throw new IllegalArgumentException("Trace sink cannot be null.");
+        }
+        this.traceSink = traceSink;
+    }
+
+    @Override
+    public boolean traceEnabled() {
+        return traceSink != null;
+    }
+
+    @Override
+    public void onNode(String operation, int depth, String node) {
+        if (traceSink != null) {
+            traceSink.accept("operation=" + operation + " depth=" + depth + " node=" + node);
+        }
+    }
+
+    @Override
+    public void onCallCompleted(String operation, long elapsedNanos, int maxDepth, long comparisons) {
+        OperationMetrics metrics = metrics(operation);
+        metrics.calls.increment();
+        metrics.latencies.incrementAndGet(bucket(elapsedNanos));
+        metrics.maxDepth.accumulate(maxDepth);
+        metrics.comparisons.add(comparisons);
+    }
+
+    @Override
+    public void onError(String operation, RuntimeException error) {
+        metrics(operation).errors.computeIfAbsent(error.getClass().getName(), type -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param operation The operation name.
+     * @return The number of calls of the operation that completed normally.
+     */
+    public long callCount(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        return metrics == null ? 0 : metrics.calls.sum();
+    }
+
+    /**
+     * Returns the latency histogram of an operation.
+     *
+     * @param operation The operation name.
+     * @return 64 counts; entry 0 counts calls measured at 0 ns and entry i &gt; 0 counts calls
+     *         that took at least 2^(i-1) and less than 2^i nanoseconds.
+     */
+    public long[] latencyHistogram(String operation) {
+        long[] histogram = new long[BUCKETS];
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics != null) {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = metrics.latencies.get(i);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * @param operation The operation name.
+     * @return The deepest recursion or nesting level reached by any call; 0 if there were none.
+     */
+    public int maxDepth(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        return metrics == null ? 0 : (int) metrics.maxDepth.get();
+    }
+
+    /**
+     * @param operation The operation name.
+     * @return The total number of key comparisons made by completed calls.
+     */
+    public long totalComparisons(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        return metrics == null ? 0 : metrics.comparisons.sum();
+    }
+
+    /**
+     * @param operation The operation name.
+     * @return The mean number of key comparisons per completed call; 0 if there were none.
+     */
+    public double averageComparisons(String operation) {
+        long calls = callCount(operation);
+        return calls == 0 ? 0 : (double) totalComparisons(operation) / calls;
+    }
+
+    /**
+     * @param operation The operation name.
+     * @return The number of failed calls keyed by exception class name, in name order.
+     */
+    public Map<String, Long> errorsByType(String operation) {
+        Map<String, Long> errors = new TreeMap<>();
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics != null) {
+            metrics.errors.forEach((type, count) -> errors.put(type, count.sum()));
+        }
+        return errors;
+    }
+
+    /**
+     * Discards all collected metrics.
+     */
+    public void reset() {
+        operations.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (String operation : new TreeMap<>(operations).keySet()) {
+            builder.append("operation=").append(operation)
+                    .append(" calls=").append(callCount(operation))
+                    .append(" maxDepth=").append(maxDepth(operation))
+                    .append(" avgComparisons=").append(averageComparisons(operation))
+                    .append(" errors=").append(errorsByType(operation))
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    // Helper to find or create the metrics of an operation
+    private OperationMetrics metrics(String operation) {
+        return operations.computeIfAbsent(operation, name -> new OperationMetrics());
+    }
+
+    // Helper to map a duration to its power-of-two histogram bucket
+    private static int bucket(long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(elapsedNanos);
+    }
+
+    // Counters of one operation
+    private static final class OperationMetrics {
+        final LongAdder calls = new LongAdder();
+        final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+        final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+        final LongAdder comparisons = new LongAdder();
+        final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,61 @@
+package def;
+
+/**
+ * The RecursionListener interface receives telemetry from the recursive entry points of
+ * {@link RecursiveExpressionParser}, {@link RecursiveBinarySearch} and {@link RecursiveSumOfDigits}
+ * once it is installed with {@link Instrumentation#install(RecursionListener)}.
+ *
+ * Events:
+ * - {@link #onCallCompleted}: one per successful call, with its latency, the deepest recursion
+ *   or nesting level it reached and the number of key comparisons it made.
+ * - {@link #onError}: one per call that ended with an exception.
+ * - {@link #onNode}: one per visited node (search step, digit, expression node), only when
+ *   {@link #traceEnabled()} returns true, because describing every node is expensive.
+ *
+ * Note:
+ * - Operations are named after the public method, e.g. {@code "binarySearchRecursive(int[])"}.
+ * - Listeners are called on the caller's thread and must be thread-safe.
+ * - Reported latencies exclude the time spent in {@link #onNode}, so tracing does not inflate them.
+ * - Evaluating a {@link CompiledExpression} directly is not instrumented; only the parser's evaluate
+ *   methods, including the cached one, are.
+ * - All methods default to doing nothing, so implementations override only what they need.
+ */
+public interface RecursionListener {
+
+    /**
+     * @return Whether {@link #onNode} should be called for every visited node.
+     */
+    default boolean traceEnabled() {
+        return false;
+    }
+
+    /**
+     * Called for every node visited by an operation while tracing is enabled.
+     *
+     * @param operation The operation name.
+     * @param depth The recursion or nesting depth of the node, starting at 1.
+     * @param node A short description of the node.
+     */
+    default void onNode(String operation, int depth, String node) {
+    }
+
+    /**
+     * Called when an operation returns normally.
+     *
+     * @param operation The operation name.
+     * @param elapsedNanos The duration of the call, excluding the time spent in {@link #onNode} callbacks.
+     * @param maxDepth The deepest recursion or nesting level reached.
+     * @param comparisons The number of key comparisons made; 0 for operations that do not compare keys.
+     */
+    default void onCallCompleted(String operation, long elapsedNanos, int maxDepth, long comparisons) {
+    }
+
+    /**
+     * Called when an operation throws. The exception is rethrown to the caller afterwards.
+     *
+     * @param operation The operation name.
+     * @param error The exception.
+     */
+    default void onError(String operation, RuntimeException error) {
+    }
+}
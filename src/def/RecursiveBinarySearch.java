@@ -2,6 +2,9 @@ package def;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * The RecursiveBinarySearch class provides methods to perform binary search
@@ -12,6 +15,8 @@ import java.util.List;
  * - Binary search for integers.
  * - Binary search for strings.
  * - Finding all indices of a target value in a sorted integer array.
+ * - O(log n) equal-range, count and primitive index views for duplicate-heavy arrays.
+ * - Optional instrumentation of the recursive searches through {@link Instrumentation}.
  * 
  * Note:
  * - The input arrays must be sorted for the binary search to work correctly.
@@ -32,11 +37,22 @@ public class RecursiveBinarySearch {
      * - Recursively divides the search range into halves.
      * - Searches the left or right half based on the target's value relative to the middle element.
      * - Returns -1 if the search range becomes invalid (left > right).
+     * - Reports recursion depth and comparisons to the installed {@link RecursionListener}, if any.
      */
     public static int binarySearchRecursive(int[] array, int target, int left, int right) {
         if (array == null || array.length == 0) {
             throw new IllegalArgumentException("Array cannot be null or empty.");
         }
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return search(array, target, left, right);
+        }
+        return searchInstrumented("binarySearchRecursive(int[])", i -> Integer.compare(target, array[i]),
+                i -> Integer.toString(array[i]), left, right, listener);
+    }
+
+    // Helper holding the recursion of binarySearchRecursive(int[], ...), once the array has been validated
+    private static int search(int[] array, int target, int left, int right) {
         if (left > right) {
             return -1; // Base case: target not found
         }
@@ -45,9 +61,9 @@ public class RecursiveBinarySearch {
         if (array[mid] == target) {
             return mid;
         } else if (array[mid] < target) {
-            return binarySearchRecursive(array, target, mid + 1, right); // Search right half
+            return search(array, target, mid + 1, right); // Search right half
         } else {
-            return binarySearchRecursive(array, target, left, mid - 1); // Search left half
+            return search(array, target, left, mid - 1); // Search left half
         }
     }
 
@@ -66,11 +82,22 @@ public class RecursiveBinarySearch {
      * - Searches the left or right half based on the target's value relative to the middle element.
      * - Uses String's `compareTo` method for comparisons.
      * - Returns -1 if the search range becomes invalid (left > right).
+     * - Reports recursion depth and comparisons to the installed {@link RecursionListener}, if any.
      */
     public static int binarySearchRecursive(String[] array, String target, int left, int right) {
         if (array == null || array.length == 0) {
             throw new IllegalArgumentException("Array cannot be null or empty.");
         }
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return search(array, target, left, right);
+        }
+        return searchInstrumented("binarySearchRecursive(String[])", i -> target.compareTo(array[i]),
+                i -> array[i], left, right, listener);
+    }
+
+    // Helper holding the recursion of binarySearchRecursive(String[], ...), once the array has been validated
+    private static int search(String[] array, String target, int left, int right) {
         if (left > right) {
             return -1; // Base case: target not found
         }
@@ -80,46 +107,180 @@ public class RecursiveBinarySearch {
         if (comparison == 0) {
             return mid;
         } else if (comparison > 0) {
-            return binarySearchRecursive(array, target, mid + 1, right); // Search right half
+            return search(array, target, mid + 1, right); // Search right half
+        } else {
+            return search(array, target, left, mid - 1); // Search left half
+        }
+    }
+
+    // Helper to run a search while reporting latency, recursion depth, comparisons, errors and (optionally) every probe.
+    // Time spent tracing is subtracted from the reported latency.
+    private static int searchInstrumented(String operation, IntUnaryOperator compareAt, IntFunction<String> describe,
+                                          int left, int right, RecursionListener listener) {
+        long start = System.nanoTime();
+        try {
+            Instrumentation.Probe probe = new Instrumentation.Probe();
+            IntFunction<String> trace = listener.traceEnabled() ? describe : null;
+            int index = searchTraced(operation, compareAt, trace, left, right, probe, 1, listener);
+            long elapsed = System.nanoTime() - start - probe.traceNanos;
+            listener.onCallCompleted(operation, elapsed, probe.maxDepth, probe.comparisons);
+            return index;
+        } catch (RuntimeException e) {
+            listener.onError(operation, e);
+            throw e;
+        }
+    }
+
+    // Helper with the same recursion as search, counting comparisons and depth; compareAt(i) compares the target with array[i]
+    private static int searchTraced(String operation, IntUnaryOperator compareAt, IntFunction<String> trace,
+                                    int left, int right, Instrumentation.Probe probe, int depth, RecursionListener listener) {
+        probe.visit(depth);
+        if (left > right) {
+            return -1; // Base case: target not found
+        }
+        int mid = left + (right - left) / 2;
+
+        int comparison = compareAt.applyAsInt(mid);
+        probe.comparisons++;
+        if (trace != null) {
+            long traceStart = System.nanoTime();
+            listener.onNode(operation, depth, "index " + mid + " [" + left + ", " + right + "] = " + trace.apply(mid));
+            probe.traceNanos += System.nanoTime() - traceStart;
+        }
+        if (comparison == 0) {
+            return mid;
+        } else if (comparison > 0) {
+            return searchTraced(operation, compareAt, trace, mid + 1, right, probe, depth + 1, listener); // Search right half
         } else {
-            return binarySearchRecursive(array, target, left, mid - 1); // Search left half
+            return searchTraced(operation, compareAt, trace, left, mid - 1, probe, depth + 1, listener); // Search left half
         }
     }
 
     /**
-     * Finds all indices of a target value in a sorted integer array using recursion.
+     * Finds all indices of a target value in a sorted integer array.
      * 
      * @param array The sorted array of integers.
      * @param target The target value to search for.
      * @param left The starting index of the current search range.
      * @param right The ending index of the current search range.
-     * @return A list of all indices where the target value occurs in the array.
-     * @throws IllegalArgumentException If the input array is null or empty.
+     * @return A list of all indices where the target value occurs in the array, in ascending order.
+     * @throws IllegalArgumentException If the input array is null or the range is invalid.
      * 
      * Behavior:
-     * - Recursively searches both the left and right halves for additional occurrences
-     *   of the target value when a match is found.
-     * - Returns an empty list if the search range becomes invalid (left > right).
+     * - Locates the run of matching elements with two O(log n) bound searches (see {@link #equalRange(int[], int)})
+     *   and only then builds the list.
+     * - Returns an empty list if the search range is empty (left > right).
+     * - Prefer {@link #equalRange(int[], int)}, {@link #count(int[], int)} or {@link #allIndices(int[], int)}
+     *   when the target may occur many times; they do not box every index.
      */
     public static List<Integer> binarySearchAllIndices(int[] array, int target, int left, int right) {
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return allIndicesInRange(array, target, left, right);
+        }
+        long start = System.nanoTime();
+        try {
+            List<Integer> indices = allIndicesInRange(array, target, left, right);
+            listener.onCallCompleted("binarySearchAllIndices", System.nanoTime() - start, 1, 0);
+            return indices;
+        } catch (RuntimeException e) {
+            listener.onError("binarySearchAllIndices", e);
+            throw e;
+        }
+    }
+
+    // Helper holding the body of binarySearchAllIndices
+    private static List<Integer> allIndicesInRange(int[] array, int target, int left, int right) {
         List<Integer> indices = new ArrayList<>();
         if (left > right) {
             return indices; // Base case
         }
-        int mid = left + (right - left) / 2;
-
-        if (array[mid] == target) {
-            indices.add(mid); // Add index of target
-            indices.addAll(binarySearchAllIndices(array, target, left, mid - 1)); // Check left side
-            indices.addAll(binarySearchAllIndices(array, target, mid + 1, right)); // Check right side
-        } else if (array[mid] < target) {
-            return binarySearchAllIndices(array, target, mid + 1, right); // Search right half
-        } else {
-            return binarySearchAllIndices(array, target, left, mid - 1); // Search left half
+        int from = BinarySearchKernels.lowerBound(array, left, right + 1, target);
+        int to = BinarySearchKernels.upperBound(array, from, right + 1, target);
+        for (int i = from; i < to; i++) {
+            indices.add(i);
         }
         return indices;
     }
 
+    /**
+     * Finds the half-open range [from, to) of indices holding the target in a sorted integer array.
+     * 
+     * @param array The sorted array of integers.
+     * @param target The target value to search for.
+     * @return The range packed into a long; unpack it with {@link #rangeFrom(long)} and {@link #rangeTo(long)}.
+     *         When the target is absent the range is empty and both ends are its insertion point.
+     * @throws IllegalArgumentException If the input array is null.
+     * 
+     * Behavior:
+     * - Runs in O(log n) regardless of how many times the target repeats.
+     * - Allocates nothing: both ends are returned in a single primitive value.
+     */
+    public static long equalRange(int[] array, int target) {
+        int from = BinarySearchKernels.lowerBound(array, target);
+        int to = BinarySearchKernels.upperBound(array, from, array.length, target);
+        return packRange(from, to);
+    }
+
+    /**
+     * @param range A range returned by {@link #equalRange(int[], int)}.
+     * @return The first index of the range (inclusive).
+     */
+    public static int rangeFrom(long range) {
+        return (int) (range >>> 32);
+    }
+
+    /**
+     * @param range A range returned by {@link #equalRange(int[], int)}.
+     * @return The end of the range (exclusive).
+     */
+    public static int rangeTo(long range) {
+        return (int) range;
+    }
+
+    /**
+     * Counts the occurrences of a target value in a sorted integer array in O(log n).
+     * 
+     * @param array The sorted array of integers.
+     * @param target The target value to count.
+     * @return The number of elements equal to the target.
+     * @throws IllegalArgumentException If the input array is null.
+     */
+    public static int count(int[] array, int target) {
+        long range = equalRange(array, target);
+        return rangeTo(range) - rangeFrom(range);
+    }
+
+    /**
+     * Returns every index of a target value in a sorted integer array as a primitive array.
+     * 
+     * @param array The sorted array of integers.
+     * @param target The target value to search for.
+     * @return The indices in ascending order; empty if the target is absent.
+     * @throws IllegalArgumentException If the input array is null.
+     */
+    public static int[] allIndices(int[] array, int target) {
+        return indexStream(array, target).toArray();
+    }
+
+    /**
+     * Returns every index of a target value in a sorted integer array as a lazy primitive stream.
+     * 
+     * @param array The sorted array of integers.
+     * @param target The target value to search for.
+     * @return The indices in ascending order; empty if the target is absent.
+     * @throws IllegalArgumentException If the input array is null.
+     */
+    public static IntStream indexStream(int[] array, int target) {
+        long range = equalRange(array, target);
+        return IntStream.range(rangeFrom(range), rangeTo(range));
+    }
+
+    // Helper to pack two non-negative indices into one long
+    private static long packRange(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
     /**
      * Main method to test the recursive binary search methods.
      * 
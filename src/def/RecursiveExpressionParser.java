@@ -1,17 +1,21 @@
 package def;
 
-
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.function.Function;
 
 /**
  * The RecursiveExpressionParser class provides methods to parse and evaluate
- * simple mathematical expressions using recursion. It supports addition, subtraction,
- * multiplication, division, and parenthesis handling.
+ * simple mathematical expressions using recursive precedence climbing. It supports
+ * addition, subtraction, multiplication, division, and parenthesis handling.
  * 
  * Features:
  * - Handles operator precedence (multiplication/division first, addition/subtraction second).
  * - Supports parentheses for controlling precedence.
  * - Extensible to handle floating-point numbers.
+ * - Compiles expressions with named variables into a reusable {@link CompiledExpression}.
+ * - Offers a stack-safe iterative mode for very deeply nested expressions.
+ * - Optional instrumentation of the evaluate methods through {@link Instrumentation}. Evaluating a
+ *   {@link CompiledExpression} directly is not instrumented, to keep compile-once, evaluate-many loops free of it.
  */
 public class RecursiveExpressionParser {
 
@@ -23,131 +27,319 @@ public class RecursiveExpressionParser {
      * @throws IllegalArgumentException If the expression is invalid or null.
      * 
      * Behavior:
-     * - Parses the string recursively to compute the result.
+     * - Compiles the expression with {@link #compile(String)} and evaluates it once.
      * - Handles operator precedence for multiplication/division and addition/subtraction.
      * - Supports parentheses to override operator precedence.
+     * - Reports to the installed {@link RecursionListener}, if any, with the deepest parenthesis nesting as depth.
      */
     public static double evaluateExpression(String expression) {
-        if (expression == null || expression.trim().isEmpty()) {
-            throw new IllegalArgumentException("Expression cannot be null or empty.");
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return compile(expression).evaluate();
         }
-        return evaluate(expression.replaceAll("\\s+", ""), 0, expression.length() - 1);
+        return evaluateInstrumented("evaluateExpression", expression, RecursiveExpressionParser::compile, listener);
     }
 
-    // Helper method to evaluate the expression recursively
-    private static double evaluate(String expr, int left, int right) {
-        // Ensure bounds are valid
-        if (left < 0 || right >= expr.length() || left > right) {
-            throw new IllegalArgumentException("Invalid bounds for expression evaluation: left=" + left + ", right=" + right);
+    /**
+     * Evaluates a mathematical expression, reusing a previously compiled form from the given cache.
+     * 
+     * @param expression The mathematical expression as a string.
+     * @param cache The cache of compiled expressions to consult and populate.
+     * @return The evaluated result of the expression as a double.
+     * @throws IllegalArgumentException If the expression is invalid or null.
+     * 
+     * Note:
+     * - Reported to the installed {@link RecursionListener}, if any, as {@code "evaluateExpression(cached)"};
+     *   the latency includes the cache lookup and, on a miss, the compilation.
+     */
+    public static double evaluateExpression(String expression, ExpressionCache cache) {
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return cache.compile(expression).evaluate();
         }
+        return evaluateInstrumented("evaluateExpression(cached)", expression, cache::compile, listener);
+    }
 
-        // Debugging log to check the bounds
-        System.out.println("Evaluating: " + expr.substring(left, right + 1));
-
-        // Check for parentheses
-        if (expr.charAt(left) == '(' && findMatchingParenthesis(expr, left) == right) {
-            return evaluate(expr, left + 1, right - 1); // Evaluate inside parentheses
+    /**
+     * Parses a mathematical expression into a reusable {@link CompiledExpression}.
+     * 
+     * @param expression The mathematical expression as a string, optionally containing
+     *                   variables such as {@code price * (1 - discount)}.
+     * @return The compiled expression, which can be evaluated repeatedly with different variable values.
+     * @throws IllegalArgumentException If the expression is invalid or null.
+     * 
+     * Behavior:
+     * - Strips all whitespace before parsing.
+     * - Tokenizes and parses in a single left-to-right pass (precedence climbing), so
+     *   compilation time is linear in the length of the expression.
+     * - Variable names start with a letter or underscore, followed by letters, digits or underscores.
+     * - The returned object is immutable and can be shared between threads.
+     */
+    public static CompiledExpression compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expression cannot be null or empty.");
         }
-
-        // If no operator is found, return the number (base case)
-        if (left == right) {
-            return parseNumber(expr.substring(left, right + 1));
+        String expr = normalize(expression);
+        ExpressionLexer lexer = new ExpressionLexer(expr);
+        CompiledExpression.Builder builder = new CompiledExpression.Builder();
+        parseExpression(lexer, builder, 1);
+        switch (lexer.type()) {
+            case ExpressionLexer.END -> { }
+            case ExpressionLexer.RIGHT_PAREN -> throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+            default -> throw new IllegalArgumentException("Unexpected token '" + lexer.text() + "' at index " + lexer.start());
         }
+        return builder.build(expr);
+    }
 
-        // Find the operator with the lowest precedence
-        int splitIndex = findLowestPrecedenceOperator(expr, left, right);
-
-        // If no operator is found, this is just a number, so return it
-        if (splitIndex == -1) {
-            return parseNumber(expr.substring(left, right + 1));
+    /**
+     * Evaluates a mathematical expression without recursion, so nesting depth is limited only by input size.
+     * 
+     * @param expression The mathematical expression as a string.
+     * @return The evaluated result of the expression as a double.
+     * @throws IllegalArgumentException If the expression is invalid or null.
+     * 
+     * Behavior:
+     * - Same results, error messages and instrumentation as {@link #evaluateExpression(String)}.
+     */
+    public static double evaluateExpressionIterative(String expression) {
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return compileIterative(expression).evaluate();
         }
-
-        // Evaluate left and right parts of the expression recursively
-        double leftResult = evaluate(expr, left, splitIndex - 1);
-        double rightResult = evaluate(expr, splitIndex + 1, right);
-        char operator = expr.charAt(splitIndex);
-
-        // Apply the operator to the results
-        return applyOperator(leftResult, rightResult, operator);
+        return evaluateInstrumented("evaluateExpressionIterative", expression, RecursiveExpressionParser::compileIterative, listener);
     }
 
+    /**
+     * Parses a mathematical expression into a {@link CompiledExpression} using explicit heap-allocated
+     * stacks instead of recursion.
+     * 
+     * @param expression The mathematical expression as a string.
+     * @return The compiled expression; identical to the one produced by {@link #compile(String)}.
+     * @throws IllegalArgumentException If the expression is invalid or null.
+     * 
+     * Behavior:
+     * - Uses the shunting-yard algorithm: operands are emitted immediately, operators and open
+     *   parentheses wait on an operator stack until an operator of lower precedence, a closing
+     *   parenthesis or the end of the input releases them.
+     * - Runs in linear time and never throws StackOverflowError, even for machine-generated
+     *   expressions with millions of nested parentheses.
+     */
+    public static CompiledExpression compileIterative(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expression cannot be null or empty.");
+        }
+        String expr = normalize(expression);
+        ExpressionLexer lexer = new ExpressionLexer(expr);
+        CompiledExpression.Builder builder = new CompiledExpression.Builder();
+        char[] operators = new char[16]; // Pending operators and '(' markers
+        int top = -1;
+        int openParentheses = 0;
+        boolean expectOperand = true;
+        char previous = 0; // Last operator or '(' consumed while expecting an operand
 
+        while (true) {
+            int type = lexer.type();
+            if (expectOperand) {
+                switch (type) {
+                    case ExpressionLexer.NUMBER -> compileNumber(lexer, builder);
+                    case ExpressionLexer.IDENTIFIER -> builder.variable(lexer.text());
+                    case ExpressionLexer.LEFT_PAREN -> {
+                        if (++top == operators.length) {
+                            operators = Arrays.copyOf(operators, operators.length * 2);
+                        }
+                        operators[top] = '(';
+                        openParentheses++;
+                        previous = '(';
+                        lexer.advance();
+                        continue;
+                    }
+                    case ExpressionLexer.OPERATOR -> throw new IllegalArgumentException("Invalid operator: " + lexer.symbol());
+                    default -> {
+                        // END or ')' where an operand was required
+                        if (previous != 0 && previous != '(') {
+                            throw new IllegalArgumentException("Invalid operator: " + previous);
+                        }
+                        if (type == ExpressionLexer.RIGHT_PAREN) {
+                            throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+                        }
+                        throw new IllegalArgumentException("Unexpected end of expression.");
+                    }
+                }
+                expectOperand = false;
+                lexer.advance();
+                continue;
+            }
 
-    // Helper to apply a mathematical operator
-    private static double applyOperator(double left, double right, char operator) {
-        return switch (operator) {
-            case '+' -> left + right;
-            case '-' -> left - right;
-            case '*' -> left * right;
-            case '/' -> {
-                if (right == 0) {
-                    throw new ArithmeticException("Division by zero");
+            if (type == ExpressionLexer.OPERATOR) {
+                char operator = lexer.symbol();
+                int precedence = getOperatorPrecedence(operator);
+                // Release waiting operators that bind at least as tightly (left associativity)
+                while (top >= 0 && operators[top] != '(' && getOperatorPrecedence(operators[top]) >= precedence) {
+                    builder.operator(operators[top--]);
+                }
+                if (++top == operators.length) {
+                    operators = Arrays.copyOf(operators, operators.length * 2);
                 }
-                yield left / right;
+                operators[top] = operator;
+                previous = operator;
+                expectOperand = true;
+                lexer.advance();
+            } else if (type == ExpressionLexer.RIGHT_PAREN) {
+                if (openParentheses == 0) {
+                    throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+                }
+                while (operators[top] != '(') {
+                    builder.operator(operators[top--]);
+                }
+                top--;
+                openParentheses--;
+                lexer.advance();
+            } else if (type == ExpressionLexer.END) {
+                if (openParentheses != 0) {
+                    throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+                }
+                while (top >= 0) {
+                    builder.operator(operators[top--]);
+                }
+                return builder.build(expr);
+            } else if (openParentheses != 0) {
+                throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+            } else {
+                throw new IllegalArgumentException("Unexpected token '" + lexer.text() + "' at index " + lexer.start());
             }
-            default -> throw new IllegalArgumentException("Invalid operator: " + operator);
-        };
+        }
     }
 
-
-    // Helper to parse a number from a string
-    private static double parseNumber(String str) {
+    // Helper to evaluate an expression while reporting latency, nesting depth, errors and (optionally) every node.
+    // Nodes are traced after the clock stops, so tracing does not inflate the reported latency.
+    private static double evaluateInstrumented(String operation, String expression,
+                                               Function<String, CompiledExpression> compiler, RecursionListener listener) {
+        long start = System.nanoTime();
         try {
-            return Double.parseDouble(str);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid number: " + str, e);
+            CompiledExpression compiled = compiler.apply(expression);
+            double result = compiled.evaluate();
+            long elapsed = System.nanoTime() - start;
+            if (listener.traceEnabled()) {
+                traceNodes(compiled, operation, listener);
+            }
+            listener.onCallCompleted(operation, elapsed, nestingDepth(compiled.source()), 0);
+            return result;
+        } catch (RuntimeException e) {
+            listener.onError(operation, e);
+            throw e;
         }
     }
 
-    // Helper to find the matching parenthesis
-    private static int findMatchingParenthesis(String expr, int start) {
-        Stack<Character> stack = new Stack<>();
-        for (int i = start; i < expr.length(); i++) {
+    // Helper to compute the deepest parenthesis nesting of a validated expression; 1 without parentheses
+    private static int nestingDepth(String expr) {
+        int depth = 1;
+        int max = 1;
+        for (int i = 0; i < expr.length(); i++) {
             char c = expr.charAt(i);
             if (c == '(') {
-                stack.push('(');
+                max = Math.max(max, ++depth);
             } else if (c == ')') {
-                stack.pop();
-                if (stack.isEmpty()) {
-                    return i; // Return the index of the matching closing parenthesis
-                }
+                depth--;
             }
         }
-        throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+        return max;
     }
 
-
-    // Helper to find the lowest precedence operator outside parentheses
-    private static int findLowestPrecedenceOperator(String expr, int left, int right) {
-        // Check for valid bounds
-        if (left < 0 || right >= expr.length() || left > right) {
-            throw new IllegalArgumentException("Invalid bounds in findLowestPrecedenceOperator: left=" + left + ", right=" + right);
+    // Helper to report every compiled node in evaluation (postfix) order.
+    // The depth of a node is the operand stack height once it has been evaluated.
+    private static void traceNodes(CompiledExpression compiled, String operation, RecursionListener listener) {
+        int height = 0;
+        for (int pc = 0; pc < compiled.instructionCount(); pc++) {
+            byte opcode = compiled.opcode(pc);
+            String node = switch (opcode) {
+                case CompiledExpression.PUSH_CONSTANT -> "constant " + compiled.constant(compiled.operand(pc));
+                case CompiledExpression.LOAD_VARIABLE -> "variable " + compiled.variableNames()[compiled.operand(pc)];
+                case CompiledExpression.ADD -> "operator +";
+                case CompiledExpression.SUBTRACT -> "operator -";
+                case CompiledExpression.MULTIPLY -> "operator *";
+                case CompiledExpression.DIVIDE -> "operator /";
+                case CompiledExpression.STORE_SLOT -> "store slot " + compiled.operand(pc);
+                default -> "load slot " + compiled.operand(pc);
+            };
+            if (opcode == CompiledExpression.PUSH_CONSTANT || opcode == CompiledExpression.LOAD_VARIABLE
+                    || opcode == CompiledExpression.LOAD_SLOT) {
+                height++;
+            } else if (opcode != CompiledExpression.STORE_SLOT) {
+                height--;
+            }
+            listener.onNode(operation, height, node);
         }
+    }
 
-        int index = -1;
-        int parenthesesDepth = 0;
-        int lowestPrecedence = Integer.MAX_VALUE;
+    // Helper to strip whitespace (the same characters as the regex \s) from an expression
+    static String normalize(String expression) {
+        StringBuilder normalized = null;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            boolean whitespace = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+            if (whitespace && normalized == null) {
+                normalized = new StringBuilder(expression.length()).append(expression, 0, i);
+            } else if (!whitespace && normalized != null) {
+                normalized.append(c);
+            }
+        }
+        return normalized == null ? expression : normalized.toString();
+    }
 
-        // Traverse the expression to find the lowest precedence operator outside parentheses
-        for (int i = left; i <= right; i++) {
-            char c = expr.charAt(i);
+    // Helper method to compile an expression using precedence climbing (Pratt parsing).
+    // Parses one operand, then keeps consuming operators that bind at least as tightly as
+    // minPrecedence; the right operand of each is parsed with a higher minimum, which makes
+    // operators of equal precedence left-associative.
+    private static void parseExpression(ExpressionLexer lexer, CompiledExpression.Builder builder, int minPrecedence) {
+        parseOperand(lexer, builder);
+        while (lexer.type() == ExpressionLexer.OPERATOR) {
+            char operator = lexer.symbol();
+            int precedence = getOperatorPrecedence(operator);
+            if (precedence < minPrecedence) {
+                return;
+            }
+            lexer.advance();
+            if (lexer.type() == ExpressionLexer.END || lexer.type() == ExpressionLexer.RIGHT_PAREN) {
+                throw new IllegalArgumentException("Invalid operator: " + operator); // Missing right operand
+            }
+            parseExpression(lexer, builder, precedence + 1);
+            builder.operator(operator);
+        }
+    }
 
-            if (c == '(') {
-                parenthesesDepth++; // Increase depth when '(' is encountered
-            } else if (c == ')') {
-                parenthesesDepth--; // Decrease depth when ')' is encountered
-            } else if (parenthesesDepth == 0) { // Consider operator only outside parentheses
-                int precedence = getOperatorPrecedence(c);
-                if (precedence <= lowestPrecedence) {
-                    lowestPrecedence = precedence;
-                    index = i;
+    // Helper to compile a number, a variable or a parenthesised sub-expression
+    private static void parseOperand(ExpressionLexer lexer, CompiledExpression.Builder builder) {
+        switch (lexer.type()) {
+            case ExpressionLexer.NUMBER -> {
+                compileNumber(lexer, builder);
+                lexer.advance();
+            }
+            case ExpressionLexer.IDENTIFIER -> {
+                builder.variable(lexer.text());
+                lexer.advance();
+            }
+            case ExpressionLexer.LEFT_PAREN -> {
+                lexer.advance();
+                parseExpression(lexer, builder, 1);
+                if (lexer.type() != ExpressionLexer.RIGHT_PAREN) {
+                    throw new IllegalArgumentException("Unmatched parentheses in the expression.");
                 }
+                lexer.advance();
             }
+            case ExpressionLexer.OPERATOR -> throw new IllegalArgumentException("Invalid operator: " + lexer.symbol());
+            case ExpressionLexer.RIGHT_PAREN -> throw new IllegalArgumentException("Unmatched parentheses in the expression.");
+            default -> throw new IllegalArgumentException("Unexpected end of expression.");
         }
-
-        return index; // Return index of the lowest precedence operator or -1 if none found
     }
 
+    // Helper to compile the current number token, keeping integer literals exact for long evaluation
+    private static void compileNumber(ExpressionLexer lexer, CompiledExpression.Builder builder) {
+        if (lexer.isIntegerLiteral()) {
+            builder.integerConstant(lexer.integerValue());
+        } else {
+            builder.constant(lexer.numberValue());
+        }
+    }
 
     // Helper to determine operator precedence
     private static int getOperatorPrecedence(char operator) {
@@ -164,7 +356,7 @@ public class RecursiveExpressionParser {
      * @param args Command-line arguments (not used).
      */
     public static void main(String[] args) {
-        // Add a test case with debugging output
+        // Add a test case
         System.out.println(evaluateExpression("3-2")); // Expected: 8.0
     }
 
@@ -1,5 +1,12 @@
 package def;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /**
  * The RecursiveSumOfDigits class provides a method to compute the sum of digits
@@ -9,21 +16,83 @@ import java.util.Scanner;
  * - sumOfDigits: A recursive method to calculate the sum of digits of a non-negative integer.
  * - Handles negative integers by converting them to positive.
  * - Base case: When the number is 0, return 0.
+ * - Bulk kernels: sumOfDigits(long[], int[]), a fork-join parallel variant and a LongStream
+ *   variant, all iterative and table driven (four digits per step), allocating nothing per number.
+ * - Range queries by digit dynamic programming: the total digit sum of, and the count of numbers
+ *   with a given digit sum in, any range [from, to] of longs, in time proportional to the digit count.
+ * - Every method handles Long.MIN_VALUE, whose absolute value does not fit in a long.
  * 
  * Time Complexity Analysis:
  * - The time complexity of this recursive algorithm is O(n), where n is the number of digits in the input number. This is because the recursion involves splitting the number digit by digit.
  */
 public class RecursiveSumOfDigits {
 
+    // DIGIT_SUMS[i] is the digit sum of i for every four-digit group 0..9999
+    private static final byte[] DIGIT_SUMS = new byte[10_000];
+
+    // Numbers per fork-join leaf task
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    // Digits of 2^63, the largest magnitude of a long, and the largest possible digit sum (18 nines and an 8 or 9)
+    private static final int MAX_DIGITS = 19;
+    private static final int MAX_DIGIT_SUM = 9 * MAX_DIGITS;
+
+    // COUNTS[n][s] is the number of n-digit strings (leading zeros allowed) whose digits sum to s
+    private static final long[][] COUNTS = new long[MAX_DIGITS + 1][MAX_DIGIT_SUM + 1];
+
+    // POWERS[n] is 10^n and BLOCK_SUMS[n] the total digit sum of all n-digit strings, n * 45 * 10^(n-1)
+    private static final BigInteger[] POWERS = new BigInteger[MAX_DIGITS + 1];
+    private static final BigInteger[] BLOCK_SUMS = new BigInteger[MAX_DIGITS + 1];
+
+    static {
+        for (int i = 1; i < DIGIT_SUMS.length; i++) {
+            DIGIT_SUMS[i] = (byte) (DIGIT_SUMS[i / 10] + i % 10);
+        }
+        COUNTS[0][0] = 1;
+        for (int n = 1; n <= MAX_DIGITS; n++) {
+            for (int s = 0; s <= 9 * n; s++) {
+                long count = 0;
+                for (int d = 0; d <= 9 && d <= s; d++) {
+                    count += COUNTS[n - 1][s - d];
+                }
+                COUNTS[n][s] = count;
+            }
+        }
+        POWERS[0] = BigInteger.ONE;
+        BLOCK_SUMS[0] = BigInteger.ZERO;
+        for (int n = 1; n <= MAX_DIGITS; n++) {
+            POWERS[n] = POWERS[n - 1].multiply(BigInteger.TEN);
+            BLOCK_SUMS[n] = BigInteger.valueOf(45L * n).multiply(POWERS[n - 1]);
+        }
+    }
+
     /**
      * Recursive method to compute the sum of digits of a number.
      * 
      * @param number The integer whose sum of digits is to be computed.
      * @return The sum of the digits.
+     * 
+     * Note:
+     * - Reports the recursion depth to the installed {@link RecursionListener}, if any.
      */
     public static int sumOfDigits(long number) {
-        // Convert negative numbers to positive
-        number = Math.abs(number);
+        RecursionListener listener = Instrumentation.listener;
+        if (listener == null) {
+            return recursiveSum(number);
+        }
+        long start = System.nanoTime();
+        Instrumentation.Probe probe = new Instrumentation.Probe();
+        int sum = tracedSum(number, probe, 1, listener.traceEnabled() ? listener : null);
+        listener.onCallCompleted("sumOfDigits", System.nanoTime() - start - probe.traceNanos, probe.maxDepth, 0);
+        return sum;
+    }
+
+    // Helper holding the recursion of sumOfDigits(long)
+    private static int recursiveSum(long number) {
+        // Negative numbers: take the last digit and negate the rest. Math.abs would overflow for Long.MIN_VALUE
+        if (number < 0) {
+            return (int) -(number % 10) + recursiveSum(-(number / 10));
+        }
         
         // Base case: if the number is 0, return 0
         if (number == 0) {
@@ -31,10 +100,251 @@ public class RecursiveSumOfDigits {
         }
 
         // Recursive case: sum the last digit and the sum of the remaining digits
-        return (int)(number % 10) + sumOfDigits(number / 10);
+        return (int)(number % 10) + recursiveSum(number / 10);
     }
 
-    public static void main(String[] args) {
+    // Helper with the same recursion as recursiveSum, recording its depth and, when tracer is set, every digit
+    private static int tracedSum(long number, Instrumentation.Probe probe, int depth, RecursionListener tracer) {
+        probe.visit(depth);
+        if (number == 0) {
+            return 0;
+        }
+        int digit = (int) Math.abs(number % 10);
+        if (tracer != null) {
+            long traceStart = System.nanoTime();
+            tracer.onNode("sumOfDigits", depth, "digit " + digit);
+            probe.traceNanos += System.nanoTime() - traceStart;
+        }
+        // Negative numbers: negate the rest after stripping a digit, as in recursiveSum
+        long rest = number < 0 ? -(number / 10) : number / 10;
+        return digit + tracedSum(rest, probe, depth + 1, tracer);
+    }
+
+    /**
+     * Computes the digit sum of every number in an array.
+     * 
+     * @param in The numbers; negative numbers are treated as positive.
+     * @param out Receives the digit sum of in[i] at out[i].
+     * @throws IllegalArgumentException If an array is null or out is shorter than in.
+     * 
+     * Behavior:
+     * - Iterative: each step strips four digits and looks their sum up in a 10,000-entry table,
+     *   so a long takes at most five steps instead of nineteen recursive calls.
+     */
+    public static void sumOfDigits(long[] in, int[] out) {
+        validate(in, out);
+        sumRange(in, out, 0, in.length);
+    }
+
+    /**
+     * Computes the digit sum of every number in an array, splitting the work across the common fork-join pool.
+     * 
+     * @param in The numbers; negative numbers are treated as positive.
+     * @param out Receives the digit sum of in[i] at out[i].
+     * @throws IllegalArgumentException If an array is null or out is shorter than in.
+     */
+    public static void sumOfDigitsParallel(long[] in, int[] out) {
+        validate(in, out);
+        if (in.length <= PARALLEL_THRESHOLD) {
+            sumRange(in, out, 0, in.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new SumTask(in, out, 0, in.length));
+        }
+    }
+
+    /**
+     * Maps a stream of numbers to their digit sums with the table-driven kernel.
+     * 
+     * @param numbers The numbers; negative numbers are treated as positive.
+     * @return The digit sums, in the same order; parallel if the input stream is parallel.
+     * @throws IllegalArgumentException If the stream is null.
+     */
+    public static IntStream sumOfDigits(LongStream numbers) {
+        if (numbers == null) {
+            throw new IllegalArgumentException("Stream cannot be null.");
+        }
+        return numbers.mapToInt(RecursiveSumOfDigits::digitSum);
+    }
+
+    /**
+     * Computes the total of the digit sums of all integers in a range.
+     * 
+     * @param from The first number of the range (inclusive).
+     * @param to The last number of the range (inclusive).
+     * @return The sum of sumOfDigits(x) for every x in [from, to]; negative numbers count as positive.
+     * @throws IllegalArgumentException If from is greater than to.
+     * 
+     * Behavior:
+     * - Digit DP: prefix totals over [0, n] are built digit by digit from precomputed
+     *   per-length tables, so a query costs O(number of digits), not O(to - from).
+     * - The range is split at zero; the negative part is answered over the magnitudes.
+     */
+    public static BigInteger sumOfDigitsInRange(long from, long to) {
+        checkRange(from, to);
+        BigInteger total = BigInteger.ZERO;
+        if (from < 0) {
+            // Magnitudes [-min(to, -1), -from], read as unsigned so that -Long.MIN_VALUE is 2^63
+            total = total.add(totalUpTo(-from)).subtract(totalUpTo(-Math.min(to, -1) - 1));
+        }
+        if (to >= 0) {
+            long start = Math.max(from, 0);
+            total = total.add(totalUpTo(to));
+            if (start > 0) {
+                total = total.subtract(totalUpTo(start - 1));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Counts the integers in a range whose digits sum to a given value.
+     * 
+     * @param from The first number of the range (inclusive).
+     * @param to The last number of the range (inclusive).
+     * @param digitSum The digit sum to look for.
+     * @return The number of x in [from, to] with sumOfDigits(x) == digitSum; negative numbers count as positive.
+     * @throws IllegalArgumentException If from is greater than to or digitSum is negative.
+     * 
+     * Behavior:
+     * - Digit DP over precomputed counts of digit strings per length and sum; O(number of digits).
+     * - The count always fits in a long; additions are nevertheless checked.
+     */
+    public static long countWithDigitSum(long from, long to, int digitSum) {
+        checkRange(from, to);
+        if (digitSum < 0) {
+            throw new IllegalArgumentException("Digit sum cannot be negative.");
+        }
+        long count = 0;
+        if (from < 0) {
+            long high = -from;
+            long low = -Math.min(to, -1);
+            count = Math.addExact(count, countUpTo(high, digitSum) - countUpTo(low - 1, digitSum));
+        }
+        if (to >= 0) {
+            long start = Math.max(from, 0);
+            count = Math.addExact(count, countUpTo(to, digitSum) - (start > 0 ? countUpTo(start - 1, digitSum) : 0));
+        }
+        return count;
+    }
+
+    private static void checkRange(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Invalid range: from (" + from + ") is greater than to (" + to + ").");
+        }
+    }
+
+    // Helper to compute the total digit sum over [0, limit], where limit is read as an unsigned value
+    private static BigInteger totalUpTo(long limit) {
+        String digits = Long.toUnsignedString(limit);
+        BigInteger total = BigInteger.ZERO;
+        long prefix = 0; // Digit sum of the digits fixed so far
+        for (int i = 0; i < digits.length(); i++) {
+            int d = digits.charAt(i) - '0';
+            int rest = digits.length() - i - 1;
+            // Every t < d at this position: (prefix + t) for each of the 10^rest completions, plus their own digits
+            long fixed = d * prefix + d * (d - 1L) / 2;
+            total = total.add(BigInteger.valueOf(fixed).multiply(POWERS[rest]))
+                    .add(BLOCK_SUMS[rest].multiply(BigInteger.valueOf(d)));
+            prefix += d;
+        }
+        return total.add(BigInteger.valueOf(prefix)); // The limit itself
+    }
+
+    // Helper to count the x in [0, limit] with the given digit sum, where limit is read as an unsigned value
+    private static long countUpTo(long limit, int digitSum) {
+        if (digitSum > MAX_DIGIT_SUM) {
+            return 0;
+        }
+        String digits = Long.toUnsignedString(limit);
+        long count = 0;
+        int prefix = 0;
+        for (int i = 0; i < digits.length() && prefix <= digitSum; i++) {
+            int d = digits.charAt(i) - '0';
+            int rest = digits.length() - i - 1;
+            for (int t = 0; t < d && prefix + t <= digitSum; t++) {
+                int remaining = digitSum - prefix - t;
+                if (remaining <= 9 * rest) {
+                    count = Math.addExact(count, COUNTS[rest][remaining]);
+                }
+            }
+            prefix += d;
+        }
+        return prefix == digitSum ? count + 1 : count;
+    }
+
+    // Helper with the iterative kernel: four digits per step via the lookup table
+    static int digitSum(long number) {
+        int sum = 0;
+        if (number < 0) {
+            // Peel one group while still negative so that the negation cannot overflow
+            sum = DIGIT_SUMS[(int) -(number % 10_000)];
+            number = -(number / 10_000);
+        }
+        while (number != 0) {
+            sum += DIGIT_SUMS[(int) (number % 10_000)];
+            number /= 10_000;
+        }
+        return sum;
+    }
+
+    private static void validate(long[] in, int[] out) {
+        if (in == null || out == null) {
+            throw new IllegalArgumentException("Arrays cannot be null.");
+        }
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output must hold at least " + in.length + " sums.");
+        }
+    }
+
+    private static void sumRange(long[] in, int[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = digitSum(in[i]);
+        }
+    }
+
+    // Fork-join task that halves its range until it is small enough to run directly
+    private static final class SumTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] in;
+        private final int[] out;
+        private final int from;
+        private final int to;
+
+        SumTask(long[] in, int[] out, int from, int to) {
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                sumRange(in, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SumTask(in, out, from, mid), new SumTask(in, out, mid, to));
+        }
+    }
+
+    /**
+     * Reads a number from standard input and prints its digit sum. With a file argument
+     * ({@code RecursiveSumOfDigits <file>}), the file is treated as one decimal number of any
+     * length and summed with {@link DigitSumEngine}.
+     *
+     * @param args Optionally, the path of a decimal text file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            DigitSumEngine.Result result = DigitSumEngine.sum(Path.of(args[0]), DigitSumEngine.NonDigitPolicy.REJECT);
+            System.out.println("The sum of the " + result.digits() + " digits in " + args[0] + " is: " + result.sum()
+                    + " (digital root " + result.digitalRoot() + ")");
+            return;
+        }
+
         // Input reading
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter a non-negative integer: ");
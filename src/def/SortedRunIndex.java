@@ -0,0 +1,358 @@
+package def;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SortedRunIndex class searches a set of {@code long} keys that arrives as many independently
+ * sorted runs, in the style of a log-structured merge tree. Looking a key up in every run with
+ * a binary search makes lookups grow linearly with the number of runs; here most runs are ruled
+ * out without touching their keys at all.
+ *
+ * Features:
+ * - Fence keys: the minimum and maximum of every run sit in two small parallel arrays, so a run
+ *   whose range cannot hold the key is skipped with two comparisons.
+ * - Optional per-run Bloom filters rule out most of the remaining runs that lack the key.
+ * - {@link #range(long, long)}: a k-way merge over the runs overlapping a key range, yielding
+ *   each key once in ascending order.
+ * - {@link #compact(int)}: merges the smallest runs into one, removing duplicate keys.
+ * - Counters for runs skipped by fences, runs skipped by Bloom filters and runs actually searched.
+ *
+ * Note:
+ * - The index has set semantics: a key present in several runs is one key.
+ * - Readers never lock; {@code addRun} and {@code compact} publish a new immutable list of runs.
+ */
+public final class SortedRunIndex {
+
+    private final int bloomBitsPerKey;
+    private volatile State state = new State(new Run[0]);
+
+    private final LongAdder fenceSkips = new LongAdder();
+    private final LongAdder bloomSkips = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+
+    /**
+     * Creates an empty index.
+     *
+     * @param bloomBitsPerKey The Bloom filter size per run key; 0 disables Bloom filters.
+     *        Ten bits per key give roughly a 1% false-positive rate.
+     * @throws IllegalArgumentException If bloomBitsPerKey is negative.
+     */
+    public SortedRunIndex(int bloomBitsPerKey) {
+        if (bloomBitsPerKey < 0) {
+            throw new IllegalArgumentException("Bloom filter bits per key cannot be negative.");
+        }
+        this.bloomBitsPerKey = bloomBitsPerKey;
+    }
+
+    /**
+     * Adds a sorted run. The array is copied; later changes to it are not seen.
+     *
+     * @param sorted The keys in ascending order; duplicates are allowed. Empty runs are ignored.
+     * @throws IllegalArgumentException If the array is null or not sorted.
+     */
+    public void addRun(long[] sorted) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Array cannot be null.");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] > sorted[i]) {
+                throw new IllegalArgumentException("Array must be sorted; index " + i + " is out of order.");
+            }
+        }
+        if (sorted.length == 0) {
+            return;
+        }
+        Run run = new Run(sorted.clone(), bloomBitsPerKey);
+        synchronized (this) {
+            Run[] grown = Arrays.copyOf(state.runs, state.runs.length + 1);
+            grown[grown.length - 1] = run;
+            state = new State(grown);
+        }
+    }
+
+    /**
+     * @return The number of runs.
+     */
+    public int runCount() {
+        return state.runs.length;
+    }
+
+    /**
+     * @return The total number of stored keys, counting a key once per run that holds it.
+     */
+    public long storedKeys() {
+        long total = 0;
+        for (Run run : state.runs) {
+            total += run.keys.length;
+        }
+        return total;
+    }
+
+    /**
+     * @param key The key to look for.
+     * @return Whether any run contains the key.
+     *
+     * Behavior:
+     * - Runs whose fence keys exclude the key are skipped, then runs whose Bloom filter rejects it.
+     * - Only the remaining runs are binary-searched, newest first.
+     */
+    public boolean contains(long key) {
+        State current = state;
+        long[] mins = current.minimums;
+        long[] maxs = current.maximums;
+        for (int r = mins.length - 1; r >= 0; r--) {
+            if (key < mins[r] || key > maxs[r]) {
+                fenceSkips.increment();
+                continue;
+            }
+            Run run = current.runs[r];
+            if (run.bloom != null && !run.bloom.mightContain(key)) {
+                bloomSkips.increment();
+                continue;
+            }
+            probes.increment();
+            int i = BinarySearchKernels.lowerBound(run.keys, key);
+            if (i < run.keys.length && run.keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates over the distinct keys in [from, to] in ascending order, merging the runs on the fly.
+     *
+     * @param from The smallest key to include.
+     * @param to The largest key to include.
+     * @return An iterator over the keys; it sees the runs as they were when it was created.
+     */
+    public PrimitiveIterator.OfLong range(long from, long to) {
+        Run[] current = state.runs;
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, current.length), Comparator.comparingLong(Cursor::key));
+        if (from <= to) {
+            for (Run run : current) {
+                if (run.keys[0] > to || run.keys[run.keys.length - 1] < from) {
+                    continue;
+                }
+                int start = BinarySearchKernels.lowerBound(run.keys, from);
+                int end = BinarySearchKernels.upperBound(run.keys, start, run.keys.length, to);
+                if (start < end) {
+                    heap.add(new Cursor(run.keys, start, end));
+                }
+            }
+        }
+        return new MergeIterator(heap);
+    }
+
+    /**
+     * Merges the smallest runs into one so that at most the given number of runs remain.
+     * Duplicate keys are removed from the merged run.
+     *
+     * @param maxRuns The number of runs to keep, at least 1.
+     * @throws IllegalArgumentException If maxRuns is not positive.
+     */
+    public synchronized void compact(int maxRuns) {
+        if (maxRuns <= 0) {
+            throw new IllegalArgumentException("At least one run must remain.");
+        }
+        Run[] current = state.runs;
+        if (current.length <= maxRuns) {
+            return;
+        }
+        // Sort run positions rather than runs, so the chosen runs can be marked by position
+        Integer[] bySize = new Integer[current.length];
+        for (int i = 0; i < bySize.length; i++) {
+            bySize[i] = i;
+        }
+        Arrays.sort(bySize, Comparator.comparingInt(i -> current[i].keys.length));
+        int mergeCount = current.length - maxRuns + 1;
+        boolean[] chosen = new boolean[current.length];
+
+        long total = 0;
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(mergeCount, Comparator.comparingLong(Cursor::key));
+        for (int i = 0; i < mergeCount; i++) {
+            chosen[bySize[i]] = true;
+            Run run = current[bySize[i]];
+            total += run.keys.length;
+            heap.add(new Cursor(run.keys, 0, run.keys.length));
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Merged run would exceed the maximum array size.");
+        }
+        long[] merged = new long[(int) total];
+        int size = 0;
+        MergeIterator iterator = new MergeIterator(heap);
+        while (iterator.hasNext()) {
+            merged[size++] = iterator.nextLong();
+        }
+
+        // Keep the untouched runs in their original (age) order and append the merged run as the newest
+        List<Run> kept = new ArrayList<>(maxRuns);
+        for (int i = 0; i < current.length; i++) {
+            if (!chosen[i]) {
+                kept.add(current[i]);
+            }
+        }
+        kept.add(new Run(Arrays.copyOf(merged, size), bloomBitsPerKey));
+        state = new State(kept.toArray(new Run[0]));
+    }
+
+    /**
+     * @return The number of runs ruled out by their fence keys.
+     */
+    public long fenceSkipCount() {
+        return fenceSkips.sum();
+    }
+
+    /**
+     * @return The number of runs ruled out by their Bloom filters.
+     */
+    public long bloomSkipCount() {
+        return bloomSkips.sum();
+    }
+
+    /**
+     * @return The number of runs that had to be binary-searched.
+     */
+    public long probeCount() {
+        return probes.sum();
+    }
+
+    // Immutable run list with its fence keys, published as one unit
+    private static final class State {
+        final Run[] runs;
+        final long[] minimums;
+        final long[] maximums;
+
+        State(Run[] runs) {
+            this.runs = runs;
+            this.minimums = new long[runs.length];
+            this.maximums = new long[runs.length];
+            for (int r = 0; r < runs.length; r++) {
+                minimums[r] = runs[r].keys[0];
+                maximums[r] = runs[r].keys[runs[r].keys.length - 1];
+            }
+        }
+    }
+
+    // One immutable sorted run
+    private static final class Run {
+        final long[] keys;
+        final BloomFilter bloom;
+
+        Run(long[] keys, int bloomBitsPerKey) {
+            this.keys = keys;
+            this.bloom = bloomBitsPerKey == 0 ? null : new BloomFilter(keys, bloomBitsPerKey);
+        }
+    }
+
+    // Position in one run during a k-way merge
+    private static final class Cursor {
+        final long[] keys;
+        int position;
+        final int end;
+
+        Cursor(long[] keys, int position, int end) {
+            this.keys = keys;
+            this.position = position;
+            this.end = end;
+        }
+
+        long key() {
+            return keys[position];
+        }
+    }
+
+    // K-way merge over cursors that skips keys equal to the previous one
+    private static final class MergeIterator implements PrimitiveIterator.OfLong {
+        private final PriorityQueue<Cursor> heap;
+        private boolean started;
+        private long last;
+
+        MergeIterator(PriorityQueue<Cursor> heap) {
+            this.heap = heap;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!heap.isEmpty() && started && heap.peek().key() == last) {
+                advance(heap.poll());
+            }
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Cursor cursor = heap.poll();
+            last = cursor.key();
+            started = true;
+            advance(cursor);
+            return last;
+        }
+
+        private void advance(Cursor cursor) {
+            // Skip duplicates within the run directly instead of through the heap
+            long key = cursor.key();
+            do {
+                cursor.position++;
+            } while (cursor.position < cursor.end && cursor.keys[cursor.position] == key);
+            if (cursor.position < cursor.end) {
+                heap.add(cursor);
+            }
+        }
+    }
+
+    // Standard Bloom filter with double hashing over a 64-bit mix of the key
+    private static final class BloomFilter {
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long[] keys, int bitsPerKey) {
+            long size = Math.max(64, (long) keys.length * bitsPerKey);
+            bits = new long[(int) Math.min((size + 63) >>> 6, Integer.MAX_VALUE - 8)];
+            bitCount = (long) bits.length << 6;
+            hashCount = (int) Math.max(1, Math.min(16, Math.round(bitsPerKey * Math.log(2))));
+            for (long key : keys) {
+                long hash = mix(key);
+                long h1 = hash >>> 32;
+                long h2 = hash & 0xFFFFFFFFL | 1;
+                for (int i = 0; i < hashCount; i++) {
+                    long bit = (h1 + i * h2) % bitCount;
+                    bits[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+
+        boolean mightContain(long key) {
+            long hash = mix(key);
+            long h1 = hash >>> 32;
+            long h2 = hash & 0xFFFFFFFFL | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = (h1 + i * h2) % bitCount;
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Helper to spread the key bits (SplitMix64 finalizer)
+        private static long mix(long key) {
+            long z = key + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
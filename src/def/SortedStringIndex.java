@@ -0,0 +1,358 @@
+package def;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The SortedStringIndex class is a compact, read-only index over a sorted array of strings.
+ * Instead of one {@code String} object per key, all keys live in a single UTF-8 {@code byte[]},
+ * and lookups compare bytes in place. It answers the same questions as
+ * {@link RecursiveBinarySearch#binarySearchRecursive(String[], String, int, int)} for the same data.
+ *
+ * Layout:
+ * - Keys are grouped in blocks of a fixed size. The first key of each block is stored in full
+ *   and the others are front coded: the length of the prefix shared with the previous key,
+ *   the length of the rest, then the rest. Block size 1 disables front coding.
+ * - One int offset per block; a lookup binary-searches the block heads, then scans one block.
+ * - The scan tracks how much of the target the current key matches, so front-coded keys
+ *   are compared without ever being decoded.
+ *
+ * Features:
+ * - {@code lowerBound}, {@code upperBound}, {@code indexOf}, {@code contains} and {@code get}.
+ * - {@code prefixRange}: the [from, to) block of keys that start with a prefix.
+ * - Ordering is exactly {@link String#compareTo(String)}: UTF-8 byte order differs from UTF-16
+ *   order only for the lead bytes of U+E000..U+FFFF and of supplementary characters, so those
+ *   lead bytes are re-ranked during comparison.
+ *
+ * Note:
+ * - Keys must not contain unpaired surrogates, which have no UTF-8 encoding.
+ * - The encoded keys must fit in one array, i.e. stay below 2 GB.
+ */
+public final class SortedStringIndex {
+
+    private static final int DEFAULT_BLOCK_SIZE = 16;
+
+    // Search modes: which keys count as "before" the target
+    private static final int LOWER = 0;  // key < target
+    private static final int UPPER = 1;  // key <= target
+    private static final int PREFIX = 2; // key < target, or key starts with target
+
+    // Comparison rank of each byte: lead bytes 0xF0-0xF4 (supplementary characters, which are
+    // surrogate pairs in UTF-16) must sort before 0xEE-0xEF (U+E000..U+FFFF)
+    private static final int[] RANK = new int[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            RANK[b] = b;
+        }
+        for (int b = 0xF0; b <= 0xF4; b++) {
+            RANK[b] = b - 2;
+        }
+        RANK[0xEE] = 0xF3;
+        RANK[0xEF] = 0xF4;
+    }
+
+    private final int size;
+    private final int blockSize;
+    private final int maxKeyLength;
+    private final byte[] data;
+    private final int[] blockOffsets;
+
+    private SortedStringIndex(String[] sorted, int blockSize) {
+        this.size = sorted.length;
+        this.blockSize = blockSize;
+        this.blockOffsets = new int[(int) (((long) size + blockSize - 1) / blockSize)];
+        byte[] buffer = new byte[64];
+        int length = 0;
+        int longest = 0;
+        byte[] previous = null;
+        for (int i = 0; i < size; i++) {
+            byte[] key = sorted[i].getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            if (i % blockSize == 0) {
+                blockOffsets[i / blockSize] = length;
+            } else {
+                int mismatch = Arrays.mismatch(previous, key);
+                shared = mismatch < 0 ? key.length : mismatch;
+            }
+            int suffix = key.length - shared;
+            buffer = ensureCapacity(buffer, (long) length + 10 + suffix);
+            length = writeVarint(buffer, length, shared);
+            length = writeVarint(buffer, length, suffix);
+            System.arraycopy(key, shared, buffer, length, suffix);
+            length += suffix;
+            longest = Math.max(longest, key.length);
+            previous = key;
+        }
+        this.data = Arrays.copyOf(buffer, length);
+        this.maxKeyLength = longest;
+    }
+
+    /**
+     * Builds an index with the default front-coding block size of 16 keys.
+     *
+     * @param sorted The keys in ascending {@link String#compareTo(String)} order; duplicates are allowed.
+     * @return The index.
+     * @throws IllegalArgumentException If the array or a key is null, the keys are not sorted,
+     *         a key contains an unpaired surrogate or the encoded keys exceed 2 GB.
+     */
+    public static SortedStringIndex of(String[] sorted) {
+        return of(sorted, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Builds an index with the given front-coding block size. Larger blocks are smaller in memory
+     * but each lookup scans more keys; a block size of 1 stores every key in full.
+     *
+     * @param sorted The keys in ascending {@link String#compareTo(String)} order; duplicates are allowed.
+     * @param blockSize The number of keys per block, at least 1.
+     * @return The index.
+     * @throws IllegalArgumentException If the array or a key is null, the keys are not sorted,
+     *         a key contains an unpaired surrogate, the block size is not positive or the encoded keys exceed 2 GB.
+     */
+    public static SortedStringIndex of(String[] sorted, int blockSize) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Array cannot be null.");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            checkKey(sorted[i]);
+            if (i > 0 && sorted[i - 1].compareTo(sorted[i]) > 0) {
+                throw new IllegalArgumentException("Array must be sorted; index " + i + " is out of order.");
+            }
+        }
+        return new SortedStringIndex(sorted, blockSize);
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of bytes used by the encoded keys.
+     */
+    public int encodedSize() {
+        return data.length;
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The position of the first key that is not less than the given key, in [0, size].
+     * @throws IllegalArgumentException If the key is null or contains an unpaired surrogate.
+     */
+    public int lowerBound(String key) {
+        return search(encode(key), LOWER);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The position of the first key that is greater than the given key, in [0, size].
+     * @throws IllegalArgumentException If the key is null or contains an unpaired surrogate.
+     */
+    public int upperBound(String key) {
+        return search(encode(key), UPPER);
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return The position of the first occurrence of the key, or -1 if it is absent.
+     * @throws IllegalArgumentException If the key is null or contains an unpaired surrogate.
+     */
+    public int indexOf(String key) {
+        byte[] target = encode(key);
+        int from = search(target, LOWER);
+        return from < size && search(target, UPPER) > from ? from : -1;
+    }
+
+    /**
+     * @param key The value to search for.
+     * @return Whether the index contains the key.
+     * @throws IllegalArgumentException If the key is null or contains an unpaired surrogate.
+     */
+    public boolean contains(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Finds the keys that start with a prefix. They are always contiguous in sorted order.
+     *
+     * @param prefix The prefix; the empty prefix matches every key.
+     * @return The range [from, to) packed into a long; unpack it with {@link RecursiveBinarySearch#rangeFrom(long)}
+     *         and {@link RecursiveBinarySearch#rangeTo(long)}. When no key matches, the range is empty.
+     * @throws IllegalArgumentException If the prefix is null or contains an unpaired surrogate.
+     */
+    public long prefixRange(String prefix) {
+        byte[] target = encode(prefix);
+        int from = search(target, LOWER);
+        int to = search(target, PREFIX);
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Decodes one key.
+     *
+     * @param index The position of the key.
+     * @return The key.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + size + ")");
+        }
+        byte[] key = new byte[maxKeyLength];
+        int length = 0;
+        int pos = blockOffsets[index / blockSize];
+        for (int i = index - index % blockSize; i <= index; i++) {
+            long shared = readVarint(pos);
+            long suffix = readVarint((int) shared);
+            pos = (int) suffix;
+            int suffixLength = (int) (suffix >>> 32);
+            length = (int) (shared >>> 32);
+            System.arraycopy(data, pos, key, length, suffixLength);
+            length += suffixLength;
+            pos += suffixLength;
+        }
+        return new String(key, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Helper to find the number of keys that come before the target in the given mode
+    private int search(byte[] target, int mode) {
+        // First block whose head does not come before the target
+        int lo = 0;
+        int hi = blockOffsets.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (headBefore(mid, target, mode)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == 0) {
+            return 0;
+        }
+
+        // The answer lies in the previous block, whose head is known to come before the target
+        int index = (lo - 1) * blockSize;
+        int end = (int) Math.min((long) index + blockSize, size);
+        long header = readVarint(readPosition(blockOffsets[lo - 1]));
+        int pos = (int) header;
+        int headLength = (int) (header >>> 32);
+        int match = commonPrefix(pos, headLength, target, 0);
+        pos += headLength;
+        for (index++; index < end; index++) {
+            long shared = readVarint(pos);
+            long suffix = readVarint((int) shared);
+            int sharedLength = (int) (shared >>> 32);
+            int suffixLength = (int) (suffix >>> 32);
+            pos = (int) suffix;
+            if (sharedLength < match) {
+                // The key first differs from its predecessor inside the matched part, upwards: past the target
+                return index;
+            }
+            if (sharedLength == match) {
+                match += commonPrefix(pos, suffixLength, target, match);
+                int keyLength = sharedLength + suffixLength;
+                byte next = match < keyLength ? data[pos + match - sharedLength] : 0;
+                if (!before(match, keyLength, next, target, mode)) {
+                    return index;
+                }
+            }
+            // Otherwise the key agrees with its predecessor beyond the match, so it compares the same way
+            pos += suffixLength;
+        }
+        return end;
+    }
+
+    // Helper to compare the full head key of a block with the target
+    private boolean headBefore(int block, byte[] target, int mode) {
+        long header = readVarint(readPosition(blockOffsets[block]));
+        int pos = (int) header;
+        int length = (int) (header >>> 32);
+        int match = commonPrefix(pos, length, target, 0);
+        return before(match, length, match < length ? data[pos + match] : 0, target, mode);
+    }
+
+    // Helper to decide whether a key comes before the target, given the length of their common prefix
+    private static boolean before(int match, int keyLength, byte next, byte[] target, int mode) {
+        if (match == target.length) {
+            return match == keyLength ? mode != LOWER : mode == PREFIX;
+        }
+        if (match == keyLength) {
+            return true; // Proper prefix of the target
+        }
+        return RANK[next & 0xFF] < RANK[target[match] & 0xFF];
+    }
+
+    // Helper to count the bytes of data[pos, pos + length) that equal target[offset, ...)
+    private int commonPrefix(int pos, int length, byte[] target, int offset) {
+        int limit = Math.min(length, target.length - offset);
+        int i = 0;
+        while (i < limit && data[pos + i] == target[offset + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    // Helper to skip the shared-length field of a block head, which is always zero
+    private int readPosition(int pos) {
+        return (int) readVarint(pos);
+    }
+
+    // Helper to read an unsigned LEB128 value; returns the value in the high and the next position in the low 32 bits
+    private long readVarint(int pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ((long) value << 32) | pos;
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, long needed) {
+        if (needed <= buffer.length) {
+            return buffer;
+        }
+        if (needed > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Encoded keys exceed 2 GB.");
+        }
+        long grown = Math.max(needed, buffer.length + (buffer.length >> 1));
+        return Arrays.copyOf(buffer, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+    }
+
+    private static byte[] encode(String key) {
+        checkKey(key);
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void checkKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null.");
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < key.length() && Character.isLowSurrogate(key.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                throw new IllegalArgumentException("Unpaired surrogate at index " + i + " of key: " + key);
+            }
+        }
+    }
+}
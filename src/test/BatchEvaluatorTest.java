@@ -0,0 +1,123 @@
+package test;
+
+import def.BatchEvaluator;
+import def.BatchEvaluator.DivisionByZeroPolicy;
+import def.CompiledExpression;
+import def.ExpressionOptimizer;
+import def.RecursiveExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluatorTest {
+
+    @Test
+    void testMatchesScalarEvaluation() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("price * (1 - discount) + 2 / (price + 1)");
+        int rows = 5000; // Several blocks plus a partial one
+        Random random = new Random(42);
+        double[] price = new double[rows];
+        double[] discount = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            price[i] = random.nextDouble() * 100;
+            discount[i] = random.nextDouble();
+        }
+        double[] output = new double[rows];
+        BatchEvaluator.evaluate(expression, new double[][] {price, discount}, output);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(expression.evaluate(price[i], discount[i]), output[i]);
+        }
+    }
+
+    @Test
+    void testConstantAndSingleVariableExpressions() {
+        double[] x = {1, 2, 3};
+        double[] output = new double[3];
+        BatchEvaluator.evaluate(RecursiveExpressionParser.compile("x"), new double[][] {x}, output);
+        assertArrayEquals(x, output);
+        BatchEvaluator.evaluate(RecursiveExpressionParser.compile("(3 + 5) * 2"), new double[0][], output);
+        assertArrayEquals(new double[] {16, 16, 16}, output);
+    }
+
+    @Test
+    void testDivisionByZeroThrowsAtRow() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("1 / x");
+        double[] x = {1, 2, 0, 4};
+        ArithmeticException exception = assertThrows(ArithmeticException.class, () ->
+                BatchEvaluator.evaluate(expression, new double[][] {x}, new double[4]));
+        assertEquals("Division by zero at row 2", exception.getMessage());
+    }
+
+    @Test
+    void testDivisionByZeroReportsLowestRowAcrossDivisions() {
+        // The first division fails only at row 3, the second already at row 1
+        CompiledExpression expression = RecursiveExpressionParser.compile("1 / x + 1 / y");
+        double[] x = {1, 2, 3, 0};
+        double[] y = {1, 0, 3, 4};
+        ArithmeticException exception = assertThrows(ArithmeticException.class, () ->
+                BatchEvaluator.evaluate(expression, new double[][] {x, y}, new double[4]));
+        assertEquals("Division by zero at row 1", exception.getMessage());
+    }
+
+    @Test
+    void testDivisionByZeroWritesNan() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("1 / x + 1 / y");
+        double[] x = {1, 0, 0, 4};
+        double[] y = {1, 0, 1, 1};
+        double[] output = new double[4];
+        long nanRows = BatchEvaluator.evaluate(expression, new double[][] {x, y}, output, DivisionByZeroPolicy.NAN);
+        assertEquals(2, nanRows); // Row 1 divides by zero twice but is counted once
+        assertArrayEquals(new double[] {2, Double.NaN, Double.NaN, 1.25}, output);
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("a * a - b / (a + 1)");
+        int rows = 300_000;
+        double[] a = new double[rows];
+        double[] b = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            a[i] = i % 1000;
+            b[i] = i;
+        }
+        double[] sequential = new double[rows];
+        double[] parallel = new double[rows];
+        BatchEvaluator.evaluate(expression, new double[][] {a, b}, sequential, DivisionByZeroPolicy.THROW);
+        BatchEvaluator.evaluateParallel(expression, new double[][] {a, b}, parallel, DivisionByZeroPolicy.THROW);
+        assertArrayEquals(sequential, parallel);
+
+        double[] withZeros = a.clone();
+        withZeros[123_456] = -1; // a + 1 == 0
+        assertEquals(1, BatchEvaluator.evaluateParallel(expression, new double[][] {withZeros, b}, parallel,
+                DivisionByZeroPolicy.NAN));
+    }
+
+    @Test
+    void testShortColumnRejected() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("x + y");
+        assertThrows(IllegalArgumentException.class, () ->
+                BatchEvaluator.evaluate(expression, new double[][] {new double[3]}, new double[3]));
+        assertThrows(IllegalArgumentException.class, () ->
+                BatchEvaluator.evaluate(expression, new double[][] {new double[3], new double[2]}, new double[3]));
+    }
+
+    @Test
+    void testOptimizedExpressionWithSharedSlots() {
+        CompiledExpression plain = RecursiveExpressionParser.compile("(a + b) * (a + b) - (a + b) / 2");
+        CompiledExpression optimized = ExpressionOptimizer.optimize(plain).expression();
+        int rows = 3000;
+        double[] a = new double[rows];
+        double[] b = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            a[i] = i * 0.5;
+            b[i] = 7 - i;
+        }
+        double[] expected = new double[rows];
+        double[] actual = new double[rows];
+        BatchEvaluator.evaluate(plain, new double[][] {a, b}, expected);
+        BatchEvaluator.evaluate(optimized, new double[][] {a, b}, actual);
+        assertArrayEquals(expected, actual);
+    }
+}
@@ -0,0 +1,90 @@
+package test;
+
+import def.BatchSearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSearchTest {
+
+    // Reference answer: first occurrence or -1
+    private static int[] expected(int[] sorted, int[] queries) {
+        int[] result = new int[queries.length];
+        for (int q = 0; q < queries.length; q++) {
+            result[q] = -1;
+            for (int i = 0; i < sorted.length; i++) {
+                if (sorted[i] == queries[q]) {
+                    result[q] = i;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] randomSorted(Random random, int n, int bound) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = random.nextInt(bound);
+        }
+        Arrays.sort(a);
+        return a;
+    }
+
+    @Test
+    void testUnsortedQueries() {
+        Random random = new Random(9);
+        for (int n : new int[] {0, 1, 5, 64, 1000}) {
+            int[] sorted = randomSorted(random, n, 500);
+            int[] queries = new int[37]; // Not a multiple of the group size
+            for (int q = 0; q < queries.length; q++) {
+                queries[q] = random.nextInt(520) - 10;
+            }
+            int[] out = new int[queries.length];
+            BatchSearch.searchAll(sorted, queries, out);
+            assertArrayEquals(expected(sorted, queries), out);
+        }
+    }
+
+    @Test
+    void testSortedQueriesUseMergeAndNarrowing() {
+        Random random = new Random(10);
+        int[] sorted = randomSorted(random, 2000, 3000);
+        int[] many = randomSorted(random, 1500, 3100); // Merge scan
+        int[] few = randomSorted(random, 20, 3100);    // Narrowing search
+        for (int[] queries : new int[][] {many, few}) {
+            int[] out = new int[queries.length];
+            BatchSearch.searchAll(sorted, queries, out);
+            assertArrayEquals(expected(sorted, queries), out);
+        }
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        Random random = new Random(11);
+        int[] sorted = randomSorted(random, 100_000, 1_000_000);
+        int[] queries = new int[200_000];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = random.nextInt(1_000_000);
+        }
+        int[] sequential = new int[queries.length];
+        int[] parallel = new int[queries.length];
+        BatchSearch.searchAll(sorted, queries, sequential);
+        BatchSearch.searchAllParallel(sorted, queries, parallel);
+        assertArrayEquals(sequential, parallel);
+        for (int q = 0; q < queries.length; q += 101) {
+            int i = sequential[q];
+            assertEquals(i >= 0, Arrays.binarySearch(sorted, queries[q]) >= 0);
+            assertTrue(i < 0 || (sorted[i] == queries[q] && (i == 0 || sorted[i - 1] < queries[q])));
+        }
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> BatchSearch.searchAll(null, new int[1], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> BatchSearch.searchAll(new int[1], new int[2], new int[1]));
+    }
+}
@@ -0,0 +1,114 @@
+package test;
+
+import def.BinarySearchKernels;
+import def.RecursiveBinarySearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySearchKernelsTest {
+
+    // Reference lower bound: first index in [from, to) whose element is >= key
+    private static int linearLowerBound(long[] a, int from, int to, long key) {
+        int i = from;
+        while (i < to && a[i] < key) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int linearUpperBound(long[] a, int from, int to, long key) {
+        int i = from;
+        while (i < to && a[i] <= key) {
+            i++;
+        }
+        return i;
+    }
+
+    @Test
+    void testIntBoundsAgainstLinearScan() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            int[] a = new int[random.nextInt(40)];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt(20); // Plenty of duplicates
+            }
+            Arrays.sort(a);
+            long[] reference = Arrays.stream(a).asLongStream().toArray();
+            int from = a.length == 0 ? 0 : random.nextInt(a.length);
+            int to = from + random.nextInt(a.length - from + 1);
+            for (int key = -1; key <= 21; key++) {
+                assertEquals(linearLowerBound(reference, 0, a.length, key), BinarySearchKernels.lowerBound(a, key));
+                assertEquals(linearUpperBound(reference, 0, a.length, key), BinarySearchKernels.upperBound(a, key));
+                assertEquals(linearLowerBound(reference, from, to, key), BinarySearchKernels.lowerBound(a, from, to, key));
+                assertEquals(linearUpperBound(reference, from, to, key), BinarySearchKernels.upperBound(a, from, to, key));
+                assertEquals(Arrays.binarySearch(a, key) >= 0, BinarySearchKernels.contains(a, key));
+            }
+        }
+    }
+
+    @Test
+    void testLongAndCharBounds() {
+        long[] longs = {Long.MIN_VALUE, -5, 0, 0, 7, Long.MAX_VALUE};
+        assertEquals(0, BinarySearchKernels.lowerBound(longs, Long.MIN_VALUE));
+        assertEquals(2, BinarySearchKernels.lowerBound(longs, 0));
+        assertEquals(4, BinarySearchKernels.upperBound(longs, 0));
+        assertEquals(6, BinarySearchKernels.upperBound(longs, Long.MAX_VALUE));
+        assertTrue(BinarySearchKernels.contains(longs, 7));
+        assertFalse(BinarySearchKernels.contains(longs, 8));
+        assertFalse(BinarySearchKernels.contains(longs, 1, 4, 7));
+
+        char[] chars = "aabcx".toCharArray();
+        assertEquals(2, BinarySearchKernels.lowerBound(chars, 'b'));
+        assertEquals(4, BinarySearchKernels.upperBound(chars, 'w'));
+        assertTrue(BinarySearchKernels.contains(chars, 'x'));
+    }
+
+    @Test
+    void testDoubleOrderMatchesArraysSort() {
+        double[] a = {Double.NaN, 1.5, -0.0, 0.0, Double.NEGATIVE_INFINITY, 2.0};
+        Arrays.sort(a); // -inf, -0.0, 0.0, 1.5, 2.0, NaN
+        assertEquals(1, BinarySearchKernels.lowerBound(a, -0.0));
+        assertEquals(2, BinarySearchKernels.lowerBound(a, 0.0));
+        assertEquals(5, BinarySearchKernels.lowerBound(a, Double.NaN));
+        assertTrue(BinarySearchKernels.contains(a, Double.NaN));
+        assertFalse(BinarySearchKernels.contains(a, 1.0));
+    }
+
+    @Test
+    void testGenericWithComparator() {
+        String[] a = {"date", "cherry", "banana", "apple"}; // Sorted in reverse order
+        Comparator<String> reverse = Comparator.reverseOrder();
+        assertEquals(2, BinarySearchKernels.lowerBound(a, "banana", reverse));
+        assertEquals(3, BinarySearchKernels.upperBound(a, "banana", reverse));
+        assertTrue(BinarySearchKernels.contains(a, "cherry", reverse));
+        assertFalse(BinarySearchKernels.contains(a, "fig", reverse));
+        assertFalse(BinarySearchKernels.contains(a, 0, 1, "cherry", reverse));
+    }
+
+    @Test
+    void testAgreesWithRecursiveSearch() {
+        int[] a = new int[1000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * 3;
+        }
+        for (int key = -2; key < 3002; key++) {
+            boolean found = RecursiveBinarySearch.binarySearchRecursive(a, key, 0, a.length - 1) >= 0;
+            assertEquals(found, BinarySearchKernels.contains(a, key));
+        }
+    }
+
+    @Test
+    void testEmptyAndInvalidArguments() {
+        assertEquals(0, BinarySearchKernels.lowerBound(new int[0], 5));
+        assertFalse(BinarySearchKernels.contains(new long[0], 5));
+        assertThrows(IllegalArgumentException.class, () -> BinarySearchKernels.lowerBound((int[]) null, 5));
+        assertThrows(IllegalArgumentException.class, () -> BinarySearchKernels.lowerBound(new int[3], 2, 1, 5));
+        assertThrows(IllegalArgumentException.class, () -> BinarySearchKernels.upperBound(new int[3], 0, 4, 5));
+        assertThrows(IllegalArgumentException.class, () -> BinarySearchKernels.contains(new String[1], "a", null));
+    }
+}
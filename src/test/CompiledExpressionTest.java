@@ -0,0 +1,109 @@
+package test;
+
+import def.CompiledExpression;
+import def.RecursiveExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledExpressionTest {
+
+    @Test
+    void testConstantExpression() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("(3 + 5) * 2");
+        assertEquals(16.0, expression.evaluate());
+        assertEquals(16.0, expression.evaluate());
+        assertTrue(expression.variables().isEmpty());
+    }
+
+    @Test
+    void testVariables() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("price * (1 - discount)");
+        assertEquals(List.of("price", "discount"), expression.variables());
+        assertEquals(0, expression.variableIndex("price"));
+        assertEquals(1, expression.variableIndex("discount"));
+        assertEquals(-1, expression.variableIndex("tax"));
+
+        assertEquals(80.0, expression.evaluate(100.0, 0.2));
+        assertEquals(45.0, expression.evaluate(50.0, 0.1), 1e-12);
+        assertEquals(80.0, expression.evaluate(Map.of("price", 100, "discount", 0.2)));
+    }
+
+    @Test
+    void testRepeatedVariableSharesIndex() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("x * x + x");
+        assertEquals(1, expression.variables().size());
+        assertEquals(12.0, expression.evaluate(3.0));
+    }
+
+    @Test
+    void testCallerSuppliedStack() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("a - b - c");
+        double[] stack = new double[expression.stackSize()];
+        assertEquals(-4.0, expression.evaluate(new double[] {1, 2, 3}, stack)); // Left-associative
+    }
+
+    @Test
+    void testMissingVariable() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("a + b");
+        assertThrows(IllegalArgumentException.class, () -> expression.evaluate(1.0));
+        assertThrows(IllegalArgumentException.class, () -> expression.evaluate(Map.of("a", 1)));
+    }
+
+    @Test
+    void testDivisionByZeroAtEvaluation() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("1 / x");
+        assertEquals(0.5, expression.evaluate(2.0));
+        ArithmeticException exception = assertThrows(ArithmeticException.class, () -> expression.evaluate(0.0));
+        assertEquals("Division by zero", exception.getMessage());
+    }
+
+    @Test
+    void testSourceIsNormalised() {
+        assertEquals("a+1", RecursiveExpressionParser.compile(" a + 1 ").source());
+    }
+
+    @Test
+    void testLongEvaluationIsExact() {
+        CompiledExpression expression = RecursiveExpressionParser.compile("a * 3 + 1");
+        assertTrue(expression.isIntegral());
+        long big = (1L << 60) + 1;
+        assertEquals(3 * big + 1, expression.evaluateLong(big)); // Exact beyond 2^53
+        assertEquals(9007199254740993L, RecursiveExpressionParser.compile("9007199254740993").evaluateLong());
+        assertEquals(42L, RecursiveExpressionParser.compile("(84 / 2) * 1").evaluateLong());
+    }
+
+    @Test
+    void testLongEvaluationFailures() {
+        CompiledExpression overflow = RecursiveExpressionParser.compile("a * a");
+        assertThrows(ArithmeticException.class, () -> overflow.evaluateLong(1L << 32));
+        assertThrows(ArithmeticException.class, () -> RecursiveExpressionParser.compile("7 / 2").evaluateLong());
+        ArithmeticException division = assertThrows(ArithmeticException.class, () ->
+                RecursiveExpressionParser.compile("7 / x").evaluateLong(0));
+        assertEquals("Division by zero", division.getMessage());
+        assertFalse(RecursiveExpressionParser.compile("1.5 * x").isIntegral());
+        assertThrows(IllegalStateException.class, () -> RecursiveExpressionParser.compile("1.5 * x").evaluateLong(2));
+        assertFalse(RecursiveExpressionParser.compile("99999999999999999999 + 1").isIntegral());
+    }
+
+    @Test
+    void testNumberLiteralsMatchDoubleParsing() {
+        String[] literals = {
+            "0", "7", "42", "0.1", "0.3", ".5", "5.", "123.456", "3.14159265358979", "1e3", "2.5E-4",
+            "9007199254740993", "123456789012345678901234567890", "0.000000000000000000000000123",
+            "1e300", "4.9e-324", "1.7976931348623157e308", "0.1e1", "00012",
+        };
+        for (String literal : literals) {
+            assertEquals(Double.parseDouble(literal), RecursiveExpressionParser.evaluateExpression(literal), literal);
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            String literal = random.nextInt(100_000) + "." + random.nextInt(1_000_000);
+            assertEquals(Double.parseDouble(literal), RecursiveExpressionParser.evaluateExpression(literal), literal);
+        }
+    }
+}
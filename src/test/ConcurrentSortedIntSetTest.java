@@ -0,0 +1,123 @@
+package test;
+
+import def.ConcurrentSortedIntSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentSortedIntSetTest {
+
+    @Test
+    void testMatchesTreeSet() throws InterruptedException {
+        try (ConcurrentSortedIntSet set = new ConcurrentSortedIntSet(64)) {
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(1);
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(10_000) - 5_000;
+                assertEquals(expected.add(key), set.add(key));
+            }
+            for (int key = -5_100; key <= 5_100; key += 3) {
+                assertEquals(expected.contains(key), set.contains(key));
+                assertEquals(expected.headSet(key).size(), set.rank(key));
+            }
+            set.flush();
+            assertTrue(set.mergeCount() > 0);
+            assertTrue(set.totalMergeNanos() > 0);
+            assertEquals(expected.size(), set.size());
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), set.snapshot().toArray());
+        }
+    }
+
+    @Test
+    void testSnapshotIsImmutable() {
+        try (ConcurrentSortedIntSet set = new ConcurrentSortedIntSet()) {
+            set.addAll(5, 1, 3);
+            ConcurrentSortedIntSet.Snapshot before = set.snapshot();
+            set.add(2);
+            assertEquals(3, before.size());
+            assertFalse(before.contains(2));
+            assertTrue(set.contains(2));
+            assertEquals("[1, 3, 5]", before.toString());
+        }
+    }
+
+    @Test
+    void testConcurrentReadersSeeEveryCompletedWrite() throws Exception {
+        ConcurrentSortedIntSet set = new ConcurrentSortedIntSet(128);
+        set.setReadLatencyTracking(true);
+        AtomicInteger written = new AtomicInteger(-1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = pool.submit(() -> {
+                for (int key = 0; key < 50_000; key++) {
+                    set.add(key * 7);
+                    written.set(key);
+                }
+            });
+            Future<?>[] readers = new Future<?>[3];
+            for (int r = 0; r < readers.length; r++) {
+                long seed = r;
+                readers[r] = pool.submit(() -> {
+                    Random random = new Random(seed);
+                    while (written.get() < 49_999) {
+                        int high = written.get();
+                        if (high >= 0) {
+                            int key = random.nextInt(high + 1);
+                            assertTrue(set.contains(key * 7), "missing " + key * 7);
+                            assertFalse(set.contains(key * 7 + 1));
+                        }
+                    }
+                });
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+            set.flush();
+            assertEquals(50_000, set.size());
+            assertTrue(set.mergeCount() > 0);
+            assertTrue(set.readCount() > 0);
+            assertTrue(set.maxReadNanos() >= set.averageReadNanos());
+        } finally {
+            pool.shutdownNow();
+            set.close();
+        }
+    }
+
+    @Test
+    void testDeltaIsBoundedWhileMergesLag() throws InterruptedException {
+        int deltaLimit = 2;
+        ConcurrentSortedIntSet set = new ConcurrentSortedIntSet(deltaLimit);
+        try {
+            int keys = 50_000; // Each merge copies the growing main array, so writers outrun it
+            for (int i = 0; i < keys; i++) {
+                assertTrue(set.add(i));
+                assertTrue(set.snapshot().pendingCount() <= 2 * 4 * deltaLimit);
+            }
+            set.flush();
+            assertEquals(keys, set.size());
+            assertEquals(0, set.snapshot().pendingCount());
+            assertEquals(keys - 1, set.rank(keys - 1));
+        } finally {
+            set.close();
+        }
+    }
+
+    @Test
+    void testClosedSetRejectsInserts() {
+        ConcurrentSortedIntSet set = new ConcurrentSortedIntSet(4);
+        set.addAll(1, 2);
+        set.close();
+        assertTrue(set.contains(2));
+        assertThrows(IllegalStateException.class, () -> set.add(3));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentSortedIntSet(0));
+    }
+}
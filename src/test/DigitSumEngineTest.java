@@ -0,0 +1,136 @@
+package test;
+
+import def.DigitSumEngine;
+import def.DigitSumEngine.NonDigitPolicy;
+import def.RecursiveSumOfDigits;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigitSumEngineTest {
+
+    // Helper to build random digit text and its expected digit sum
+    private static long randomDigits(StringBuilder text, int count, Random random) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = random.nextInt(10);
+            text.append((char) ('0' + digit));
+            sum += digit;
+        }
+        return sum;
+    }
+
+    @Test
+    void testMatchesLongKernel() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1_000; i++) {
+            long number = random.nextLong();
+            DigitSumEngine.Result result = DigitSumEngine.sum(BigInteger.valueOf(number));
+            assertEquals(RecursiveSumOfDigits.sumOfDigits(number), result.sum());
+        }
+        assertEquals(89, DigitSumEngine.sum(BigInteger.valueOf(Long.MIN_VALUE)).sum());
+        assertEquals(0, DigitSumEngine.sum(BigInteger.ZERO).digitalRoot());
+    }
+
+    @Test
+    void testLargeBigIntegerAndDigitalRoot() {
+        BigInteger number = BigInteger.TEN.pow(100_000).subtract(BigInteger.ONE); // 100,000 nines
+        DigitSumEngine.Result result = DigitSumEngine.sum(number);
+        assertEquals(900_000, result.sum());
+        assertEquals(100_000, result.digits());
+        assertEquals(9, result.digitalRoot());
+        assertEquals(BigInteger.valueOf(900_000), result.sumAsBigInteger());
+        assertEquals(1, DigitSumEngine.sum("1234", NonDigitPolicy.REJECT).digitalRoot()); // 10, then 1
+    }
+
+    @Test
+    void testBigIntegerChunksMatchDecimalText() {
+        Random random = new Random(5);
+        BigInteger[] numbers = {
+            BigInteger.ZERO,
+            BigInteger.TEN.pow(18),
+            BigInteger.TEN.pow(18).subtract(BigInteger.ONE),
+            BigInteger.TEN.pow(500).add(BigInteger.ONE), // Runs of all-zero chunks inside the number
+            BigInteger.TEN.pow(72).negate(),
+            new BigInteger(20_000, random),
+            new BigInteger(20_000, random).negate()
+        };
+        for (BigInteger number : numbers) {
+            String text = number.abs().toString();
+            DigitSumEngine.Result result = DigitSumEngine.sum(number);
+            assertEquals(DigitSumEngine.sum(text, NonDigitPolicy.REJECT).sum(), result.sum(), text);
+            assertEquals(text.length(), result.digits(), text);
+        }
+        for (int bits = 1; bits < 400; bits += 7) {
+            BigInteger number = new BigInteger(bits, random);
+            assertEquals(number.toString().length(), DigitSumEngine.sum(number).digits());
+        }
+    }
+
+    @Test
+    void testParallelTextMatchesSequentialSum() {
+        StringBuilder text = new StringBuilder();
+        long expected = randomDigits(text, 3_500_000, new Random(2));
+        DigitSumEngine.Result result = DigitSumEngine.sum(text, NonDigitPolicy.REJECT);
+        assertEquals(expected, result.sum());
+        assertEquals(3_500_000, result.digits());
+    }
+
+    @Test
+    void testNonDigitPolicies() {
+        assertEquals(10, DigitSumEngine.sum("1,234", NonDigitPolicy.SKIP).sum());
+        assertEquals(10, DigitSumEngine.sum("-12 34\n", NonDigitPolicy.REJECT).sum());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                DigitSumEngine.sum("1,234", NonDigitPolicy.REJECT));
+        assertEquals("Invalid character ',' at index 1", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> DigitSumEngine.sum("12-3", NonDigitPolicy.REJECT));
+        assertThrows(IllegalArgumentException.class, () -> DigitSumEngine.sum((CharSequence) null, NonDigitPolicy.SKIP));
+        assertThrows(IllegalArgumentException.class, () -> DigitSumEngine.sum("1", null));
+    }
+
+    @Test
+    void testInputStream() throws IOException {
+        StringBuilder text = new StringBuilder("+");
+        long expected = randomDigits(text, 200_003, new Random(3));
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+        assertEquals(expected, DigitSumEngine.sum(new ByteArrayInputStream(bytes), NonDigitPolicy.REJECT).sum());
+
+        bytes[100_001] = 'x';
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                DigitSumEngine.sum(new ByteArrayInputStream(bytes), NonDigitPolicy.REJECT));
+        assertEquals("Invalid byte 0x78 at offset 100001", exception.getMessage());
+    }
+
+    @Test
+    void testMappedFileAcrossChunks() throws IOException {
+        Path file = Files.createTempFile("digits", ".txt");
+        try {
+            Random random = new Random(4);
+            long expected = 0;
+            long digits = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (int line = 0; line < 40; line++) {
+                    StringBuilder text = new StringBuilder();
+                    expected += randomDigits(text, 500_000, random);
+                    digits += 500_000;
+                    text.append('\n');
+                    out.write(text.toString().getBytes(StandardCharsets.US_ASCII));
+                }
+            }
+            DigitSumEngine.Result result = DigitSumEngine.sum(file, NonDigitPolicy.REJECT);
+            assertEquals(expected, result.sum());
+            assertEquals(digits, result.digits());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
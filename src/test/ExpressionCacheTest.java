@@ -0,0 +1,119 @@
+package test;
+
+import def.CompiledExpression;
+import def.ExpressionCache;
+import def.RecursiveExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionCacheTest {
+
+    @Test
+    void testHitsAndMisses() {
+        ExpressionCache cache = new ExpressionCache(10);
+        assertEquals(16.0, RecursiveExpressionParser.evaluateExpression("(3 + 5) * 2", cache));
+        assertEquals(16.0, RecursiveExpressionParser.evaluateExpression("(3+5)*2", cache)); // Same after normalisation
+        assertEquals(16.0, cache.evaluate(" ( 3 + 5 ) * 2 "));
+        assertEquals(1, cache.missCount());
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.size());
+        assertEquals(2.0 / 3.0, cache.hitRate(), 1e-12);
+    }
+
+    @Test
+    void testSameInstanceReturned() {
+        ExpressionCache cache = new ExpressionCache(10);
+        CompiledExpression first = cache.compile("a * b");
+        assertSame(first, cache.compile("a*b"));
+    }
+
+    @Test
+    void testLruEviction() {
+        ExpressionCache cache = new ExpressionCache(1);
+        cache.compile("1 + 1");
+        cache.compile("2 + 2");
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictionCount());
+        cache.compile("2 + 2");
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        ExpressionCache cache = new ExpressionCache(50);
+        for (int i = 0; i < 1000; i++) {
+            cache.compile(i + " * x");
+        }
+        assertTrue(cache.size() <= 50);
+        assertEquals(1000, cache.missCount());
+        assertEquals(1000 - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    void testHotSetAsLargeAsTheCacheStaysCached() {
+        // Any per-hash partition of 32 slots would overflow for some of these keys
+        ExpressionCache cache = new ExpressionCache(32);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 32; i++) {
+                cache.compile("x * " + i);
+            }
+        }
+        assertEquals(32, cache.missCount());
+        assertEquals(0, cache.evictionCount());
+        assertEquals(32 * 9, cache.hitCount());
+    }
+
+    @Test
+    void testSkewedAccessKeepsHotKeys() {
+        ExpressionCache cache = new ExpressionCache(16);
+        for (int i = 0; i < 10_000; i++) {
+            cache.compile("hot + " + (i % 4)); // A few hot keys between a stream of one-off keys
+            cache.compile("cold + " + i);
+        }
+        assertEquals(4 + 10_000, cache.missCount());
+        assertEquals(10_000 - 4, cache.hitCount());
+        assertEquals(16, cache.size());
+    }
+
+    @Test
+    void testInvalidExpressionsAreNotCached() {
+        ExpressionCache cache = new ExpressionCache(10);
+        assertThrows(IllegalArgumentException.class, () -> cache.compile("3 + * 2"));
+        assertThrows(IllegalArgumentException.class, () -> cache.compile(null));
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionCache(0));
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        ExpressionCache cache = new ExpressionCache(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        int n = i % 100;
+                        assertEquals(n * 2.0, cache.evaluate(n + " * 2"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertEquals(80_000, cache.hitCount() + cache.missCount());
+        assertTrue(cache.size() <= 64);
+    }
+}
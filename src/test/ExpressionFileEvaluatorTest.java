@@ -0,0 +1,113 @@
+package test;
+
+import def.ExpressionFileEvaluator;
+import def.RecursiveExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionFileEvaluatorTest {
+
+    @Test
+    void testResultsAndErrorsPerLine() throws IOException {
+        Path input = Files.createTempFile("expressions", ".txt");
+        Path output = Files.createTempFile("results", ".txt");
+        try {
+            Files.write(input, List.of("(3 + 5) * 2", "10 / 0", "3 + * 2", "5-3"), StandardCharsets.US_ASCII);
+            ExpressionFileEvaluator.Summary summary = ExpressionFileEvaluator.evaluateFile(input, output, 2);
+            assertEquals(4, summary.lines());
+            assertEquals(2, summary.errors());
+            List<String> results = Files.readAllLines(output, StandardCharsets.US_ASCII);
+            assertEquals("16.0", results.get(0));
+            assertEquals("ERROR: Division by zero", results.get(1));
+            assertTrue(results.get(2).startsWith("ERROR: Invalid operator"));
+            assertEquals("2.0", results.get(3));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void testNonAsciiLineReportsErrorWithoutAborting() throws IOException {
+        Path input = Files.createTempFile("expressions", ".txt");
+        Path output = Files.createTempFile("results", ".txt");
+        try {
+            Files.write(input, List.of("1+2", "3 \u00D7 2", "4/2"), StandardCharsets.ISO_8859_1);
+            ExpressionFileEvaluator.Summary summary = ExpressionFileEvaluator.evaluateFile(input, output, 1);
+            assertEquals(3, summary.lines());
+            assertEquals(1, summary.errors());
+            List<String> results = Files.readAllLines(output, StandardCharsets.ISO_8859_1);
+            assertEquals(List.of("3.0", "ERROR: Invalid character '\u00D7' at index 1", "2.0"), results);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void testDeeplyNestedLine() throws IOException {
+        Path input = Files.createTempFile("expressions", ".txt");
+        Path output = Files.createTempFile("results", ".txt");
+        try {
+            int depth = 200_000;
+            String nested = "(".repeat(depth) + "1+1" + ")".repeat(depth);
+            Files.write(input, List.of("1+2", nested, "(".repeat(depth), "4/2"), StandardCharsets.US_ASCII);
+            ExpressionFileEvaluator.Summary summary = ExpressionFileEvaluator.evaluateFile(input, output, 2);
+            assertEquals(4, summary.lines());
+            assertEquals(1, summary.errors());
+            List<String> results = Files.readAllLines(output, StandardCharsets.US_ASCII);
+            assertEquals(List.of("3.0", "2.0", "ERROR: Unexpected end of expression.", "2.0"), results);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void testManyChunksStayInOrder() throws IOException {
+        Path input = Files.createTempFile("expressions", ".txt");
+        Path output = Files.createTempFile("results", ".txt");
+        try {
+            int lineCount = 600_000; // Several input chunks
+            try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.US_ASCII)) {
+                for (int i = 0; i < lineCount; i++) {
+                    writer.write(i + " * 2 + 1\r\n");
+                }
+            }
+            assertTrue(Files.size(input) > 8 * 1024 * 1024);
+            ExpressionFileEvaluator.Summary summary = ExpressionFileEvaluator.evaluateFile(input, output, 4);
+            assertEquals(lineCount, summary.lines());
+            assertEquals(0, summary.errors());
+            List<String> results = Files.readAllLines(output, StandardCharsets.US_ASCII);
+            assertEquals(lineCount, results.size());
+            for (int i = 0; i < lineCount; i += 997) {
+                assertEquals(String.valueOf(RecursiveExpressionParser.evaluateExpression(i + " * 2 + 1")), results.get(i));
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void testLastLineWithoutNewline() throws IOException {
+        Path input = Files.createTempFile("expressions", ".txt");
+        Path output = Files.createTempFile("results", ".txt");
+        try {
+            Files.writeString(input, "1+1\n2+2", StandardCharsets.US_ASCII);
+            assertEquals(2, ExpressionFileEvaluator.evaluateFile(input, output, 1).lines());
+            assertEquals(List.of("2.0", "4.0"), Files.readAllLines(output, StandardCharsets.US_ASCII));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package test;
+
+import def.CompiledExpression;
+import def.ExpressionOptimizer;
+import def.RecursiveExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionOptimizerTest {
+
+    private static ExpressionOptimizer.Result optimize(String expression) {
+        return ExpressionOptimizer.optimize(RecursiveExpressionParser.compile(expression));
+    }
+
+    @Test
+    void testConstantFolding() {
+        ExpressionOptimizer.Result result = optimize("(3 + 5) * x");
+        assertEquals(3, result.expression().instructionCount()); // 8, x, *
+        assertEquals(2, result.removedInstructions()); // 3, 5, +, x, * became 8, x, *
+        assertEquals(16.0, result.expression().evaluate(2.0));
+    }
+
+    @Test
+    void testExactIdentitiesAreSimplified() {
+        assertEquals(1, optimize("x * 1").expression().instructionCount());
+        assertEquals(1, optimize("1 * x").expression().instructionCount());
+        assertEquals(1, optimize("x / 1").expression().instructionCount());
+        assertEquals(1, optimize("x - 0").expression().instructionCount());
+        assertEquals(1, optimize("(x * (2 - 1)) / (4 / 4)").expression().instructionCount());
+    }
+
+    @Test
+    void testInexactIdentitiesAreKept() {
+        assertEquals(3, optimize("x + 0").expression().instructionCount()); // -0.0 + 0 is 0.0
+        assertEquals(3, optimize("x * 0").expression().instructionCount()); // NaN * 0 is NaN
+        assertEquals(0.0, optimize("x + 0").expression().evaluate(-0.0));
+    }
+
+    @Test
+    void testDivisionByZeroIsNotFolded() {
+        CompiledExpression optimized = optimize("x + 1 / 0").expression();
+        ArithmeticException exception = assertThrows(ArithmeticException.class, () -> optimized.evaluate(1.0));
+        assertEquals("Division by zero", exception.getMessage());
+    }
+
+    @Test
+    void testCommonSubexpressionsAreShared() {
+        ExpressionOptimizer.Result result = optimize("(a + b) * (a + b) - (a + b)");
+        // a, b, +, store, load, *, load, -
+        assertEquals(8, result.expression().instructionCount());
+        assertEquals(3, result.removedInstructions()); // From 11 instructions
+        assertEquals(0, optimize("x + x").removedInstructions()); // x, x, + is emitted unchanged
+        assertEquals(20.0, result.expression().evaluate(2.0, 3.0));
+    }
+
+    @Test
+    void testResultsMatchBitForBit() {
+        String[] expressions = {
+            "a * (b + c) / (a * (b + c) + 1) - (3 + 5) * a",
+            "(a - b) * (a - b) + (a - b) / 7 + 0.1 * 3",
+            "a / b / c * 1 - 0 + (c - 0) * (1 * c)",
+            "((a + b) * (a + b)) * ((a + b) * (a + b))",
+        };
+        Random random = new Random(7);
+        for (String text : expressions) {
+            CompiledExpression plain = RecursiveExpressionParser.compile(text);
+            CompiledExpression optimized = ExpressionOptimizer.optimize(plain).expression();
+            for (int i = 0; i < 1000; i++) {
+                double[] values = {random.nextGaussian() * 1e6, random.nextGaussian(), random.nextGaussian() * 1e-6};
+                if (i % 10 == 0) {
+                    values[i % 3] = i % 20 == 0 ? -0.0 : Double.NaN;
+                }
+                assertEquals(outcome(plain, values), outcome(optimized, values), text);
+            }
+        }
+    }
+
+    // Raw result bits, or the exception message when evaluation fails
+    private static String outcome(CompiledExpression expression, double[] values) {
+        try {
+            return Long.toHexString(Double.doubleToRawLongBits(expression.evaluate(values)));
+        } catch (ArithmeticException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    void testDeepExpressionDoesNotOverflow() {
+        StringBuilder text = new StringBuilder("x");
+        for (int i = 0; i < 200_000; i++) {
+            text.append(" + x * 1");
+        }
+        CompiledExpression optimized = ExpressionOptimizer.optimize(RecursiveExpressionParser.compile(text.toString())).expression();
+        assertEquals(200_001.0, optimized.evaluate(1.0));
+    }
+}
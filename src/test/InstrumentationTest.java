@@ -0,0 +1,184 @@
+package test;
+
+import def.ExpressionCache;
+import def.Instrumentation;
+import def.MetricsListener;
+import def.RecursionListener;
+import def.RecursiveBinarySearch;
+import def.RecursiveExpressionParser;
+import def.RecursiveSumOfDigits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentationTest {
+
+    @AfterEach
+    void tearDown() {
+        Instrumentation.uninstall();
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        assertNull(Instrumentation.current());
+        assertEquals(10, RecursiveSumOfDigits.sumOfDigits(1234));
+        assertThrows(IllegalArgumentException.class, () -> Instrumentation.install(null));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsListener(null));
+    }
+
+    @Test
+    void testBinarySearchComparisonsAndDepth() {
+        MetricsListener metrics = new MetricsListener();
+        Instrumentation.install(metrics);
+        int[] array = {1, 2, 3, 4, 4, 5, 6};
+        assertEquals(3, RecursiveBinarySearch.binarySearchRecursive(array, 4, 0, array.length - 1));
+        assertEquals(-1, RecursiveBinarySearch.binarySearchRecursive(array, 7, 0, array.length - 1));
+
+        String operation = "binarySearchRecursive(int[])";
+        assertEquals(2, metrics.callCount(operation));
+        assertEquals(4, metrics.totalComparisons(operation)); // 1 for the hit, 3 for the miss
+        assertEquals(2.0, metrics.averageComparisons(operation));
+        assertEquals(4, metrics.maxDepth(operation)); // Three probes, then the empty range
+        assertEquals(2, Arrays.stream(metrics.latencyHistogram(operation)).sum());
+
+        String[] strings = {"apple", "banana", "cherry", "date"};
+        assertEquals(2, RecursiveBinarySearch.binarySearchRecursive(strings, "cherry", 0, strings.length - 1));
+        assertEquals(1, metrics.callCount("binarySearchRecursive(String[])"));
+        assertEquals(2, metrics.totalComparisons("binarySearchRecursive(String[])"));
+
+        assertEquals(List.of(3, 4), RecursiveBinarySearch.binarySearchAllIndices(array, 4, 0, array.length - 1));
+        assertEquals(1, metrics.callCount("binarySearchAllIndices"));
+    }
+
+    @Test
+    void testSumOfDigitsDepthAndTrace() {
+        List<String> trace = new ArrayList<>();
+        MetricsListener metrics = new MetricsListener(trace::add);
+        Instrumentation.install(metrics);
+        assertEquals(10, RecursiveSumOfDigits.sumOfDigits(1234));
+        assertEquals(10, RecursiveSumOfDigits.sumOfDigits(-1234));
+        assertEquals(89, RecursiveSumOfDigits.sumOfDigits(Long.MIN_VALUE));
+
+        assertEquals(3, metrics.callCount("sumOfDigits"));
+        assertEquals(20, metrics.maxDepth("sumOfDigits")); // 19 digits plus the base case
+        assertEquals("operation=sumOfDigits depth=1 node=digit 4", trace.get(0));
+        assertEquals("operation=sumOfDigits depth=4 node=digit 1", trace.get(3));
+        assertEquals(4 + 4 + 19, trace.size());
+    }
+
+    @Test
+    void testExpressionNestingTraceAndErrors() {
+        List<String> trace = new ArrayList<>();
+        MetricsListener metrics = new MetricsListener(trace::add);
+        Instrumentation.install(metrics);
+        assertEquals(14.0, RecursiveExpressionParser.evaluateExpression("(3 + (5 - 1)) * 2"));
+        assertEquals(14.0, RecursiveExpressionParser.evaluateExpressionIterative("(3 + (5 - 1)) * 2"));
+
+        assertEquals(1, metrics.callCount("evaluateExpression"));
+        assertEquals(3, metrics.maxDepth("evaluateExpression"));
+        assertEquals(3, metrics.maxDepth("evaluateExpressionIterative"));
+        assertEquals(0, metrics.totalComparisons("evaluateExpression"));
+        assertEquals(14, trace.size()); // Seven nodes per call
+        assertEquals("operation=evaluateExpression depth=1 node=constant 3.0", trace.get(0));
+        assertEquals("operation=evaluateExpression depth=1 node=operator *", trace.get(6));
+
+        assertThrows(ArithmeticException.class, () -> RecursiveExpressionParser.evaluateExpression("1 / 0"));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveExpressionParser.evaluateExpression("(1 + 2"));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveExpressionParser.evaluateExpression("(1 + 2"));
+        assertEquals(Map.of("java.lang.ArithmeticException", 1L, "java.lang.IllegalArgumentException", 2L),
+                metrics.errorsByType("evaluateExpression"));
+        assertEquals(1, metrics.callCount("evaluateExpression")); // Failed calls are not counted as completed
+    }
+
+    @Test
+    void testCachedEvaluationIsReported() {
+        MetricsListener metrics = new MetricsListener();
+        Instrumentation.install(metrics);
+        ExpressionCache cache = new ExpressionCache(4);
+        assertEquals(16.0, RecursiveExpressionParser.evaluateExpression("(3 + 5) * 2", cache));
+        assertEquals(16.0, RecursiveExpressionParser.evaluateExpression("(3+5)*2", cache));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveExpressionParser.evaluateExpression("3 +", cache));
+        assertEquals(2, metrics.callCount("evaluateExpression(cached)"));
+        assertEquals(2, metrics.maxDepth("evaluateExpression(cached)"));
+        assertEquals(Map.of("java.lang.IllegalArgumentException", 1L), metrics.errorsByType("evaluateExpression(cached)"));
+        assertEquals(0, metrics.callCount("evaluateExpression"));
+    }
+
+    @Test
+    void testLatencyExcludesTracing() {
+        long nodeNanos = 20_000_000;
+        List<Long> latencies = new ArrayList<>();
+        Instrumentation.install(new RecursionListener() {
+            @Override
+            public boolean traceEnabled() {
+                return true;
+            }
+
+            @Override
+            public void onNode(String operation, int depth, String node) {
+                long start = System.nanoTime();
+                while (System.nanoTime() - start < nodeNanos) {
+                    Thread.onSpinWait(); // A deliberately slow trace sink
+                }
+            }
+
+            @Override
+            public void onCallCompleted(String operation, long elapsedNanos, int maxDepth, long comparisons) {
+                latencies.add(elapsedNanos);
+            }
+        });
+        int[] array = {1, 2, 3, 4, 5, 6, 7};
+        RecursiveSumOfDigits.sumOfDigits(1234); // Four traced digits
+        RecursiveBinarySearch.binarySearchRecursive(array, 7, 0, array.length - 1); // Three traced probes
+        RecursiveExpressionParser.evaluateExpression("1 + 2"); // Three traced nodes
+        assertEquals(3, latencies.size());
+        for (long latency : latencies) {
+            assertTrue(latency < nodeNanos, "Latency " + latency + " includes tracing");
+        }
+    }
+
+    @Test
+    void testCustomListenerAndUninstall() {
+        List<String> events = new ArrayList<>();
+        RecursionListener listener = new RecursionListener() {
+            @Override
+            public void onCallCompleted(String operation, long elapsedNanos, int maxDepth, long comparisons) {
+                events.add(operation + ":" + maxDepth);
+            }
+
+            @Override
+            public void onError(String operation, RuntimeException error) {
+                events.add(operation + ":" + error.getMessage());
+            }
+        };
+        Instrumentation.install(listener);
+        assertSame(listener, Instrumentation.current());
+        assertEquals(6, RecursiveSumOfDigits.sumOfDigits(123));
+        assertThrows(IllegalArgumentException.class,
+                () -> RecursiveBinarySearch.binarySearchRecursive(new int[0], 1, 0, 0));
+        assertEquals(List.of("sumOfDigits:4"), events); // Argument validation happens before instrumentation
+
+        Instrumentation.uninstall();
+        assertNull(Instrumentation.current());
+        assertEquals(6, RecursiveSumOfDigits.sumOfDigits(123));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void testResetAndToString() {
+        MetricsListener metrics = new MetricsListener();
+        Instrumentation.install(metrics);
+        RecursiveSumOfDigits.sumOfDigits(99);
+        assertTrue(metrics.toString().startsWith("operation=sumOfDigits calls=1 maxDepth=3"));
+        metrics.reset();
+        assertEquals(0, metrics.callCount("sumOfDigits"));
+        assertEquals(0, metrics.maxDepth("sumOfDigits"));
+        assertEquals("", metrics.toString());
+    }
+}
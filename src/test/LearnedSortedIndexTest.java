@@ -0,0 +1,111 @@
+package test;
+
+import def.BinarySearchKernels;
+import def.LearnedSortedIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LearnedSortedIndexTest {
+
+    // Helper to compare every bound against the plain binary search for keys in and around the data
+    private static void assertMatchesBinarySearch(long[] keys, LearnedSortedIndex index, Random random) {
+        long[] probes = new long[4 * keys.length + 4];
+        for (int i = 0; i < keys.length; i++) {
+            probes[4 * i] = keys[i];
+            probes[4 * i + 1] = keys[i] - 1;
+            probes[4 * i + 2] = keys[i] + 1;
+            probes[4 * i + 3] = random.nextLong();
+        }
+        probes[probes.length - 4] = Long.MIN_VALUE;
+        probes[probes.length - 3] = Long.MAX_VALUE;
+        probes[probes.length - 2] = 0;
+        probes[probes.length - 1] = -1;
+        for (long probe : probes) {
+            int lower = BinarySearchKernels.lowerBound(keys, probe);
+            assertEquals(lower, index.lowerBound(probe), "lowerBound " + probe);
+            assertEquals(BinarySearchKernels.upperBound(keys, probe), index.upperBound(probe), "upperBound " + probe);
+            assertEquals(lower < keys.length && keys[lower] == probe ? lower : -1, index.indexOf(probe));
+        }
+    }
+
+    @Test
+    void testUniformKeysFitFewSegments() {
+        Random random = new Random(1);
+        long[] keys = new long[100_000];
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < keys.length; i++) {
+            timestamp += 900 + random.nextInt(200); // Roughly one event per second
+            keys[i] = timestamp;
+        }
+        LearnedSortedIndex index = LearnedSortedIndex.of(keys, 16);
+        assertTrue(index.usesModel());
+        assertTrue(index.segmentCount() < keys.length / 100, "segments: " + index.segmentCount());
+        assertTrue(index.maxError() <= 17, "maxError: " + index.maxError());
+        assertMatchesBinarySearch(keys, index, random);
+    }
+
+    @Test
+    void testSkewedKeysWithDuplicates() {
+        Random random = new Random(2);
+        long[] keys = new long[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            double u = random.nextDouble();
+            keys[i] = (long) (Math.exp(u * 30)); // Exponentially skewed
+        }
+        for (int i = 0; i < 5_000; i++) {
+            keys[i] = 42; // A long run of duplicates
+        }
+        Arrays.sort(keys);
+        LearnedSortedIndex index = LearnedSortedIndex.of(keys);
+        assertMatchesBinarySearch(keys, index, random);
+    }
+
+    @Test
+    void testAdversarialKeysStayCorrect() {
+        Random random = new Random(3);
+        long[] keys = new long[20_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextBoolean() ? random.nextLong() : random.nextInt(100); // Huge gaps beside dense clusters
+        }
+        keys[0] = Long.MIN_VALUE;
+        keys[1] = Long.MAX_VALUE;
+        Arrays.sort(keys);
+        LearnedSortedIndex index = LearnedSortedIndex.of(keys, 1);
+        assertMatchesBinarySearch(keys, index, random);
+
+        long[] heavyTailed = new long[10_000];
+        long key = 0;
+        for (int i = 0; i < heavyTailed.length; i++) {
+            key += 1L << random.nextInt(41); // Gaps spanning twelve orders of magnitude
+            heavyTailed[i] = key;
+        }
+        LearnedSortedIndex fallback = LearnedSortedIndex.of(heavyTailed, 1);
+        assertFalse(fallback.usesModel());
+        assertEquals(-1, fallback.maxError());
+        assertMatchesBinarySearch(heavyTailed, fallback, random);
+    }
+
+    @Test
+    void testSmallAndInvalidInput() {
+        LearnedSortedIndex empty = LearnedSortedIndex.of(new long[0]);
+        assertEquals(0, empty.lowerBound(5));
+        assertEquals(-1, empty.indexOf(5));
+        LearnedSortedIndex single = LearnedSortedIndex.of(new long[] {7});
+        assertEquals(0, single.indexOf(7));
+        assertEquals(1, single.upperBound(7));
+        assertFalse(single.contains(8));
+
+        long[] source = {1, 2, 3};
+        LearnedSortedIndex copy = LearnedSortedIndex.of(source);
+        source[0] = 100;
+        assertEquals(0, copy.indexOf(1));
+
+        assertThrows(IllegalArgumentException.class, () -> LearnedSortedIndex.of(null));
+        assertThrows(IllegalArgumentException.class, () -> LearnedSortedIndex.of(new long[] {2, 1}));
+        assertThrows(IllegalArgumentException.class, () -> LearnedSortedIndex.of(new long[] {1}, 0));
+    }
+}
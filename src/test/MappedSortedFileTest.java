@@ -0,0 +1,146 @@
+package test;
+
+import def.BinarySearchKernels;
+import def.MappedSortedFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSortedFileTest {
+
+    // Helper to write sorted keys with duplicates as big-endian longs
+    private static long[] writeLongKeys(Path file, int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextInt(count / 2) - count / 4L;
+        }
+        Arrays.sort(keys);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    void testLongKeysMatchArraySearch() throws IOException {
+        Path file = Files.createTempFile("keys", ".bin");
+        try {
+            long[] keys = writeLongKeys(file, 50_000, 3);
+            try (MappedSortedFile mapped = MappedSortedFile.openLongKeys(file)) {
+                assertEquals(keys.length, mapped.recordCount());
+                for (long key = -13_000; key <= 13_000; key += 7) {
+                    int from = BinarySearchKernels.lowerBound(keys, key);
+                    int to = BinarySearchKernels.upperBound(keys, key);
+                    assertEquals(from, mapped.lowerBound(key), "lowerBound " + key);
+                    assertEquals(to, mapped.upperBound(key), "upperBound " + key);
+                    MappedSortedFile.Range range = mapped.equalRange(key);
+                    assertEquals(from, range.from());
+                    assertEquals(to, range.to());
+                    assertEquals(from == to, range.isEmpty());
+                    assertEquals(from < to ? from : -1, mapped.indexOf(key));
+                }
+                assertEquals(0, mapped.lowerBound(Long.MIN_VALUE));
+                assertEquals(keys.length, mapped.upperBound(Long.MAX_VALUE));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testFenceIndexGivesSameAnswers() throws IOException {
+        Path file = Files.createTempFile("keys", ".bin");
+        try {
+            long[] keys = writeLongKeys(file, 40_001, 5);
+            try (MappedSortedFile plain = MappedSortedFile.openLongKeys(file);
+                 MappedSortedFile fenced = MappedSortedFile.openLongKeys(file)) {
+                for (int entries : new int[] {1, 3, 64, 40_001, 100_000}) {
+                    fenced.buildFenceIndex(entries);
+                    for (long key = -10_500; key <= 10_500; key += 13) {
+                        assertEquals(plain.lowerBound(key), fenced.lowerBound(key), "lowerBound " + key);
+                        assertEquals(plain.upperBound(key), fenced.upperBound(key), "upperBound " + key);
+                    }
+                    assertEquals(keys[keys.length - 1], fenced.keyAt(fenced.lowerBound(keys[keys.length - 1])));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testKeyedRecords() throws IOException {
+        Path file = Files.createTempFile("records", ".bin");
+        try {
+            // 16-byte records: 4-byte payload, little-endian int key at offset 4, 8 bytes of padding
+            ByteBuffer buffer = ByteBuffer.allocate(1000 * 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < 1000; i++) {
+                buffer.putInt(i).putInt(i * 2 - 1000).putLong(0);
+            }
+            Files.write(file, buffer.array());
+            try (MappedSortedFile mapped = MappedSortedFile.open(file, 16, 4, Integer.BYTES, ByteOrder.LITTLE_ENDIAN)) {
+                assertEquals(1000, mapped.recordCount());
+                assertEquals(-1000, mapped.keyAt(0));
+                long index = mapped.indexOf(200);
+                assertEquals(600, index);
+                assertEquals(-1, mapped.indexOf(201));
+                assertEquals(601, mapped.lowerBound(201));
+
+                byte[] record = new byte[16];
+                mapped.readRecord(index, record);
+                assertEquals(600, ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN).getInt(0));
+                assertThrows(IndexOutOfBoundsException.class, () -> mapped.keyAt(1000));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testRangeHoldsIndicesBeyondIntRange() {
+        long from = (1L << 31) + 5;
+        long to = (1L << 34) + 7; // Records of a file of well over 100 GB of long keys
+        MappedSortedFile.Range range = new MappedSortedFile.Range(from, to);
+        assertEquals(from, range.from());
+        assertEquals(to, range.to());
+        assertEquals(to - from, range.length());
+        assertFalse(range.isEmpty());
+        assertEquals(new MappedSortedFile.Range(from, to), range);
+        assertTrue(new MappedSortedFile.Range(to, to).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new MappedSortedFile.Range(to, from));
+        assertThrows(IllegalArgumentException.class, () -> new MappedSortedFile.Range(-1, 0));
+    }
+
+    @Test
+    void testEmptyFileAndInvalidLayouts() throws IOException {
+        Path file = Files.createTempFile("empty", ".bin");
+        try {
+            try (MappedSortedFile mapped = MappedSortedFile.openLongKeys(file)) {
+                assertEquals(0, mapped.recordCount());
+                assertEquals(0, mapped.lowerBound(5));
+                assertEquals(-1, mapped.indexOf(5));
+                mapped.buildFenceIndex(8);
+                assertEquals(0, mapped.upperBound(5));
+            }
+            assertThrows(IllegalArgumentException.class, () -> MappedSortedFile.open(file, 8, 4, 8, ByteOrder.BIG_ENDIAN));
+            assertThrows(IllegalArgumentException.class, () -> MappedSortedFile.open(file, 8, 0, 2, ByteOrder.BIG_ENDIAN));
+            Files.write(file, new byte[12]);
+            assertThrows(IllegalArgumentException.class, () -> MappedSortedFile.openLongKeys(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -74,5 +74,42 @@ public class RecursiveBinarySearchTest {
         List<Integer> result = RecursiveBinarySearch.binarySearchAllIndices(array, target, 0, array.length - 1);
         assertTrue(result.isEmpty());
     }
-}
 
+    @Test
+    public void testBinarySearchAllIndicesManyDuplicates() {
+        int[] array = new int[100_000];
+        Arrays.fill(array, 10, 99_990, 7);
+        Arrays.fill(array, 99_990, array.length, 9);
+        List<Integer> result = RecursiveBinarySearch.binarySearchAllIndices(array, 7, 0, array.length - 1);
+        assertEquals(99_980, result.size());
+        assertEquals(10, (int) result.get(0));
+        assertEquals(99_989, (int) result.get(result.size() - 1));
+    }
+
+    @Test
+    public void testEqualRange() {
+        int[] array = {1, 2, 4, 4, 4, 5, 6};
+        long range = RecursiveBinarySearch.equalRange(array, 4);
+        assertEquals(2, RecursiveBinarySearch.rangeFrom(range));
+        assertEquals(5, RecursiveBinarySearch.rangeTo(range));
+
+        long missing = RecursiveBinarySearch.equalRange(array, 3);
+        assertEquals(2, RecursiveBinarySearch.rangeFrom(missing)); // Insertion point
+        assertEquals(2, RecursiveBinarySearch.rangeTo(missing));
+
+        long past = RecursiveBinarySearch.equalRange(array, 9);
+        assertEquals(7, RecursiveBinarySearch.rangeFrom(past));
+        assertEquals(7, RecursiveBinarySearch.rangeTo(past));
+    }
+
+    @Test
+    public void testCountAndIndexViews() {
+        int[] array = {1, 2, 4, 4, 4, 5, 6};
+        assertEquals(3, RecursiveBinarySearch.count(array, 4));
+        assertEquals(0, RecursiveBinarySearch.count(array, 3));
+        assertArrayEquals(new int[] {2, 3, 4}, RecursiveBinarySearch.allIndices(array, 4));
+        assertEquals(0, RecursiveBinarySearch.allIndices(array, 0).length);
+        assertEquals(9, RecursiveBinarySearch.indexStream(array, 4).sum());
+        assertThrows(IllegalArgumentException.class, () -> RecursiveBinarySearch.count(null, 4));
+    }
+}
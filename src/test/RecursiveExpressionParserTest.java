@@ -1,7 +1,10 @@
 package test;
 
+import def.CompiledExpression;
 import def.RecursiveExpressionParser;
 import org.junit.jupiter.api.Test;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RecursiveExpressionParserTest {
@@ -45,4 +48,117 @@ class RecursiveExpressionParserTest {
         assertEquals(1.0, RecursiveExpressionParser.evaluateExpression("1"));
         assertEquals(50.0, RecursiveExpressionParser.evaluateExpression("50"));
     }
+
+    @Test
+    void testPrecedenceAndAssociativity() {
+        assertEquals(14.0, RecursiveExpressionParser.evaluateExpression("2 + 3 * 4"));
+        assertEquals(4.0, RecursiveExpressionParser.evaluateExpression("10 - 3 - 3"));
+        assertEquals(1.0, RecursiveExpressionParser.evaluateExpression("8 / 4 / 2"));
+        assertEquals(2.5, RecursiveExpressionParser.evaluateExpression("1.5 + 0.5 * 2"));
+        assertEquals(1500.0, RecursiveExpressionParser.evaluateExpression("1.5e3"));
+    }
+
+    @Test
+    void testMalformedExpressions() {
+        assertTrue(assertThrows(IllegalArgumentException.class, () ->
+            RecursiveExpressionParser.evaluateExpression("3 +")).getMessage().contains("Invalid operator"));
+        assertTrue(assertThrows(IllegalArgumentException.class, () ->
+            RecursiveExpressionParser.evaluateExpression("3 + 2)")).getMessage().contains("Unmatched parentheses"));
+        assertTrue(assertThrows(IllegalArgumentException.class, () ->
+            RecursiveExpressionParser.evaluateExpression("(3 + (2)")).getMessage().contains("Unmatched parentheses"));
+        assertTrue(assertThrows(IllegalArgumentException.class, () ->
+            RecursiveExpressionParser.evaluateExpression("1.2.3")).getMessage().contains("Invalid number"));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveExpressionParser.evaluateExpression("3 $ 2"));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveExpressionParser.evaluateExpression("2(3)"));
+    }
+
+    @Test
+    void testLongGeneratedExpression() {
+        // 1 + 2*1 + 3*1 + ... well past 10 KB of text
+        StringBuilder expression = new StringBuilder("0");
+        double expected = 0;
+        for (int i = 1; i <= 3000; i++) {
+            expression.append(" + (").append(i).append(" * 1)");
+            expected += i;
+        }
+        assertTrue(expression.length() > 10_000);
+        assertEquals(expected, RecursiveExpressionParser.evaluateExpression(expression.toString()));
+    }
+
+    @Test
+    void testIterativeMatchesRecursive() {
+        String[] expressions = {
+            "5-3", "(3 + 5) * 2", "((3 + 2) * 4)", "10 - 3 - 3", "8 / 4 / 2", "2 + 3 * 4 - 6 / 3",
+            "a * (b + c) / (a - 1)", "((((x))))", "1.5e3 + .5",
+        };
+        for (String expression : expressions) {
+            CompiledExpression recursive = RecursiveExpressionParser.compile(expression);
+            CompiledExpression iterative = RecursiveExpressionParser.compileIterative(expression);
+            assertEquals(recursive.instructionCount(), iterative.instructionCount(), expression);
+            double[] values = {2, 3, 4};
+            assertEquals(recursive.evaluate(values), iterative.evaluate(values), expression);
+        }
+    }
+
+    @Test
+    void testIterativeMatchesRecursiveOnRandomExpressions() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            String expression = randomExpression(random, 6);
+            assertEquals(RecursiveExpressionParser.evaluateExpression(expression),
+                    RecursiveExpressionParser.evaluateExpressionIterative(expression), expression);
+        }
+    }
+
+    // Helper to build a random expression without division
+    private static String randomExpression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return String.valueOf(random.nextInt(10));
+        }
+        String operator = String.valueOf("+-*".charAt(random.nextInt(3)));
+        String expression = randomExpression(random, depth - 1) + operator + randomExpression(random, depth - 1);
+        return random.nextBoolean() ? "(" + expression + ")" : expression;
+    }
+
+    @Test
+    void testIterativeErrorMessages() {
+        ArithmeticException division = assertThrows(ArithmeticException.class, () ->
+            RecursiveExpressionParser.evaluateExpressionIterative("10 / 0"));
+        assertEquals("Division by zero", division.getMessage());
+        String[] invalidOperators = {"3 + * 2", "3 +", "(3 + )"};
+        for (String expression : invalidOperators) {
+            assertTrue(assertThrows(IllegalArgumentException.class, () ->
+                RecursiveExpressionParser.evaluateExpressionIterative(expression)).getMessage().contains("Invalid operator"));
+        }
+        String[] unmatched = {"(3 + 2", "3 + 2)", "((1)", "()"};
+        for (String expression : unmatched) {
+            assertTrue(assertThrows(IllegalArgumentException.class, () ->
+                RecursiveExpressionParser.evaluateExpressionIterative(expression)).getMessage().contains("Unmatched parentheses"));
+        }
+    }
+
+    @Test
+    void testIterativeMillionDeepNesting() {
+        int depth = 1_000_000;
+        StringBuilder nested = new StringBuilder(2 * depth + 1);
+        for (int i = 0; i < depth; i++) {
+            nested.append('(');
+        }
+        nested.append('7');
+        for (int i = 0; i < depth; i++) {
+            nested.append(')');
+        }
+        assertEquals(7.0, RecursiveExpressionParser.evaluateExpressionIterative(nested.toString()));
+
+        // 1 + (1 + (1 + ...)) keeps a million operators pending at once
+        StringBuilder rightNested = new StringBuilder(4 * depth);
+        for (int i = 0; i < depth; i++) {
+            rightNested.append("1+(");
+        }
+        rightNested.append('0');
+        for (int i = 0; i < depth; i++) {
+            rightNested.append(')');
+        }
+        assertEquals(depth, RecursiveExpressionParser.evaluateExpressionIterative(rightNested.toString()));
+    }
 }
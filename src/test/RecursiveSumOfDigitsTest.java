@@ -4,12 +4,19 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import def.RecursiveSumOfDigits;
 
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.stream.LongStream;
+
 /**
  * The RecursiveSumOfDigitsTest class contains test cases to verify the functionality
  * of the sumOfDigits method from the RecursiveSumOfDigits class.
  * 
  * Test Cases:
  * - Various numbers including edge cases like 0, large numbers, and negative numbers.
+ * - Long.MIN_VALUE and Long.MAX_VALUE.
+ * - The bulk array, parallel and stream kernels against the recursive method.
+ * - Digit-DP range queries against brute force, including negative and extreme ranges.
  */
 class RecursiveSumOfDigitsTest {
 
@@ -60,4 +67,120 @@ class RecursiveSumOfDigitsTest {
     void testNegativeSingleDigit() {
         assertEquals(7, RecursiveSumOfDigits.sumOfDigits(-7));  // Single negative digit is treated as positive
     }
+
+    /**
+     * Test case for the extreme long values, where Math.abs overflows.
+     */
+    @Test
+    void testExtremeValues() {
+        assertEquals(89, RecursiveSumOfDigits.sumOfDigits(Long.MIN_VALUE));  // 9223372036854775808
+        assertEquals(88, RecursiveSumOfDigits.sumOfDigits(Long.MAX_VALUE));  // 9223372036854775807
+    }
+
+    /**
+     * Test case for the bulk kernels against the recursive method.
+     */
+    @Test
+    void testBulkKernelsMatchRecursive() {
+        Random random = new Random(7);
+        long[] numbers = new long[100_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextLong() >> random.nextInt(64);
+        }
+        numbers[0] = Long.MIN_VALUE;
+        numbers[1] = Long.MAX_VALUE;
+        numbers[2] = 0;
+        numbers[3] = -10_000;
+        int[] expected = new int[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            expected[i] = RecursiveSumOfDigits.sumOfDigits(numbers[i]);
+        }
+
+        int[] sequential = new int[numbers.length];
+        RecursiveSumOfDigits.sumOfDigits(numbers, sequential);
+        assertArrayEquals(expected, sequential);
+
+        int[] parallel = new int[numbers.length];
+        RecursiveSumOfDigits.sumOfDigitsParallel(numbers, parallel);
+        assertArrayEquals(expected, parallel);
+
+        assertArrayEquals(expected, RecursiveSumOfDigits.sumOfDigits(LongStream.of(numbers)).toArray());
+        assertArrayEquals(expected, RecursiveSumOfDigits.sumOfDigits(LongStream.of(numbers).parallel()).toArray());
+    }
+
+    /**
+     * Test case for invalid bulk arguments.
+     */
+    @Test
+    void testBulkInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> RecursiveSumOfDigits.sumOfDigits(null, new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveSumOfDigits.sumOfDigits(new long[2], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveSumOfDigits.sumOfDigits((LongStream) null));
+    }
+
+    /**
+     * Test case for range queries against brute force on small ranges.
+     */
+    @Test
+    void testRangeQueriesMatchBruteForce() {
+        Random random = new Random(9);
+        for (int i = 0; i < 300; i++) {
+            long from = random.nextInt(20_000) - 10_000;
+            long to = from + random.nextInt(3_000);
+            if (i % 3 == 0) {
+                from += Long.MAX_VALUE - 20_000; // Near the top of the range
+                to = Math.min(Long.MAX_VALUE, from + 2_000);
+            } else if (i % 3 == 1) {
+                from = Long.MIN_VALUE + random.nextInt(1_000);
+                to = from + random.nextInt(2_000);
+            }
+            long total = 0;
+            long[] counts = new long[200];
+            for (long x = from; ; x++) {
+                int sum = RecursiveSumOfDigits.sumOfDigits(x);
+                total += sum;
+                counts[sum]++;
+                if (x == to) {
+                    break;
+                }
+            }
+            assertEquals(BigInteger.valueOf(total), RecursiveSumOfDigits.sumOfDigitsInRange(from, to), from + ".." + to);
+            for (int k = 0; k < 180; k += 1 + random.nextInt(10)) {
+                assertEquals(counts[k], RecursiveSumOfDigits.countWithDigitSum(from, to, k), from + ".." + to + " k=" + k);
+            }
+        }
+    }
+
+    /**
+     * Test case for range queries over the full long range.
+     */
+    @Test
+    void testRangeQueriesFullRange() {
+        assertEquals(BigInteger.valueOf(89), RecursiveSumOfDigits.sumOfDigitsInRange(Long.MIN_VALUE, Long.MIN_VALUE));
+        assertEquals(1, RecursiveSumOfDigits.countWithDigitSum(Long.MIN_VALUE, Long.MIN_VALUE, 89));
+        assertEquals(BigInteger.valueOf(89), RecursiveSumOfDigits.sumOfDigitsInRange(Long.MIN_VALUE, Long.MAX_VALUE)
+                .subtract(RecursiveSumOfDigits.sumOfDigitsInRange(Long.MIN_VALUE + 1, Long.MAX_VALUE)));
+
+        // Every long is counted under exactly one digit sum, and the weighted counts give the total
+        BigInteger numbers = BigInteger.ZERO;
+        BigInteger weighted = BigInteger.ZERO;
+        for (int k = 0; k <= 171; k++) {
+            long count = RecursiveSumOfDigits.countWithDigitSum(Long.MIN_VALUE, Long.MAX_VALUE, k);
+            numbers = numbers.add(BigInteger.valueOf(count));
+            weighted = weighted.add(BigInteger.valueOf(count).multiply(BigInteger.valueOf(k)));
+        }
+        assertEquals(BigInteger.ONE.shiftLeft(64), numbers);
+        assertEquals(RecursiveSumOfDigits.sumOfDigitsInRange(Long.MIN_VALUE, Long.MAX_VALUE), weighted);
+        assertEquals(0, RecursiveSumOfDigits.countWithDigitSum(0, Long.MAX_VALUE, 200));
+    }
+
+    /**
+     * Test case for invalid range arguments.
+     */
+    @Test
+    void testRangeQueryInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> RecursiveSumOfDigits.sumOfDigitsInRange(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveSumOfDigits.countWithDigitSum(5, 4, 1));
+        assertThrows(IllegalArgumentException.class, () -> RecursiveSumOfDigits.countWithDigitSum(0, 4, -1));
+    }
 }
@@ -0,0 +1,105 @@
+package test;
+
+import def.SortedRunIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedRunIndexTest {
+
+    // Helper to add runs of increasing time windows with some overlap and duplicates, tracking the expected set
+    private static TreeSet<Long> fill(SortedRunIndex index, int runs, long seed) {
+        Random random = new Random(seed);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int r = 0; r < runs; r++) {
+            long[] run = new long[200 + random.nextInt(300)];
+            for (int i = 0; i < run.length; i++) {
+                run[i] = r * 1_000L + random.nextInt(1_500);
+                expected.add(run[i]);
+            }
+            Arrays.sort(run);
+            index.addRun(run);
+        }
+        return expected;
+    }
+
+    private static List<Long> drain(PrimitiveIterator.OfLong iterator) {
+        List<Long> keys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            keys.add(iterator.nextLong());
+        }
+        return keys;
+    }
+
+    @Test
+    void testContainsSkipsMostRuns() {
+        SortedRunIndex index = new SortedRunIndex(10);
+        TreeSet<Long> expected = fill(index, 50, 1);
+        assertEquals(50, index.runCount());
+        for (long key = -100; key < 52_000; key++) {
+            assertEquals(expected.contains(key), index.contains(key), "key " + key);
+        }
+        long lookups = 52_100;
+        long considered = index.fenceSkipCount() + index.bloomSkipCount() + index.probeCount();
+        assertTrue(index.probeCount() * 5 < considered, "probes: " + index.probeCount());
+        assertTrue(index.bloomSkipCount() > 0);
+        assertTrue(index.probeCount() < lookups * 3);
+    }
+
+    @Test
+    void testWithoutBloomFilters() {
+        SortedRunIndex index = new SortedRunIndex(0);
+        TreeSet<Long> expected = fill(index, 10, 2);
+        for (long key = 0; key < 11_000; key += 3) {
+            assertEquals(expected.contains(key), index.contains(key));
+        }
+        assertEquals(0, index.bloomSkipCount());
+    }
+
+    @Test
+    void testRangeIsMergedAndDistinct() {
+        SortedRunIndex index = new SortedRunIndex(10);
+        TreeSet<Long> expected = fill(index, 20, 3);
+        assertEquals(new ArrayList<>(expected.subSet(4_321L, true, 9_876L, true)), drain(index.range(4_321, 9_876)));
+        assertEquals(new ArrayList<>(expected), drain(index.range(Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertTrue(drain(index.range(10, 5)).isEmpty());
+        assertTrue(drain(index.range(100_000, 200_000)).isEmpty());
+    }
+
+    @Test
+    void testCompactMergesSmallestRuns() {
+        SortedRunIndex index = new SortedRunIndex(8);
+        TreeSet<Long> expected = fill(index, 30, 4);
+        long before = index.storedKeys();
+        index.compact(5);
+        assertEquals(5, index.runCount());
+        assertTrue(index.storedKeys() <= before);
+        assertEquals(new ArrayList<>(expected), drain(index.range(Long.MIN_VALUE, Long.MAX_VALUE)));
+        for (long key = 0; key < 31_000; key += 7) {
+            assertEquals(expected.contains(key), index.contains(key));
+        }
+        index.compact(1);
+        assertEquals(1, index.runCount());
+        assertEquals(expected.size(), index.storedKeys()); // One run without duplicates
+    }
+
+    @Test
+    void testInvalidInput() {
+        SortedRunIndex index = new SortedRunIndex(10);
+        assertThrows(IllegalArgumentException.class, () -> new SortedRunIndex(-1));
+        assertThrows(IllegalArgumentException.class, () -> index.addRun(null));
+        assertThrows(IllegalArgumentException.class, () -> index.addRun(new long[] {3, 1}));
+        assertThrows(IllegalArgumentException.class, () -> index.compact(0));
+        index.addRun(new long[0]);
+        assertEquals(0, index.runCount());
+        assertFalse(index.contains(1));
+        assertFalse(index.range(0, 10).hasNext());
+    }
+}
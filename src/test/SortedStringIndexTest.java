@@ -0,0 +1,123 @@
+package test;
+
+import def.RecursiveBinarySearch;
+import def.SortedStringIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedStringIndexTest {
+
+    // ASCII, 2- and 3-byte characters, U+E000..U+FFFF and supplementary characters
+    private static final String[] PIECES = {"a", "b", "z", "\u00e9", "\u4e2d", "\ue000", "\uffee", "\ud83d\ude00", "\ud800\udc00"};
+
+    private static String[] randomKeys(int count, long seed) {
+        Random random = new Random(seed);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                key.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            keys[i] = key.toString();
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    // Helper to count the keys that compare below the target, the reference for lowerBound
+    private static int countBelow(String[] keys, String target, boolean inclusive) {
+        int count = 0;
+        for (String key : keys) {
+            int c = key.compareTo(target);
+            if (c < 0 || (inclusive && c == 0)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void testBoundsMatchStringOrder() {
+        String[] keys = randomKeys(3_000, 1);
+        String[] targets = randomKeys(500, 2);
+        for (int blockSize : new int[] {1, 4, 16, 1_000}) {
+            SortedStringIndex index = SortedStringIndex.of(keys, blockSize);
+            for (String target : targets) {
+                assertEquals(countBelow(keys, target, false), index.lowerBound(target), target);
+                assertEquals(countBelow(keys, target, true), index.upperBound(target), target);
+            }
+            for (int i = 0; i < keys.length; i += 7) {
+                assertEquals(keys[i], index.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testIndexOfMatchesRecursiveSearch() {
+        String[] keys = Arrays.stream(randomKeys(2_000, 3)).distinct().toArray(String[]::new);
+        SortedStringIndex index = SortedStringIndex.of(keys);
+        for (String target : randomKeys(500, 4)) {
+            assertEquals(RecursiveBinarySearch.binarySearchRecursive(keys, target, 0, keys.length - 1), index.indexOf(target), target);
+        }
+        for (String key : keys) {
+            assertTrue(index.contains(key));
+        }
+    }
+
+    @Test
+    void testDuplicatesReturnFirstOccurrence() {
+        String[] keys = {"apple", "apple", "apple", "banana", "banana", "cherry"};
+        SortedStringIndex index = SortedStringIndex.of(keys, 2);
+        assertEquals(0, index.indexOf("apple"));
+        assertEquals(3, index.indexOf("banana"));
+        assertEquals(3, index.lowerBound("b"));
+        assertEquals(5, index.upperBound("banana"));
+        assertEquals(-1, index.indexOf("apricot"));
+    }
+
+    @Test
+    void testPrefixRange() {
+        String[] keys = randomKeys(3_000, 5);
+        SortedStringIndex index = SortedStringIndex.of(keys);
+        for (String prefix : new String[] {"", "a", "ab", "\u00e9", "\ue000", "\ud83d\ude00", "zzzzzz", "\uffee\u4e2d"}) {
+            long range = index.prefixRange(prefix);
+            int from = RecursiveBinarySearch.rangeFrom(range);
+            int to = RecursiveBinarySearch.rangeTo(range);
+            assertEquals(Arrays.stream(keys).filter(k -> k.startsWith(prefix)).count(), to - from, prefix);
+            for (int i = from; i < to; i++) {
+                assertTrue(keys[i].startsWith(prefix));
+            }
+        }
+    }
+
+    @Test
+    void testFrontCodingSavesSpace() {
+        String[] keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.format("customer-%08d", i);
+        }
+        SortedStringIndex plain = SortedStringIndex.of(keys, 1);
+        SortedStringIndex coded = SortedStringIndex.of(keys, 32);
+        assertTrue(coded.encodedSize() * 2 < plain.encodedSize());
+        assertEquals(4_321, coded.indexOf("customer-00004321"));
+        assertEquals(keys[9_999], coded.get(9_999));
+    }
+
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> SortedStringIndex.of(null));
+        assertThrows(IllegalArgumentException.class, () -> SortedStringIndex.of(new String[] {"b", "a"}));
+        assertThrows(IllegalArgumentException.class, () -> SortedStringIndex.of(new String[] {"a", null}));
+        assertThrows(IllegalArgumentException.class, () -> SortedStringIndex.of(new String[] {"a\ud800"}));
+        assertThrows(IllegalArgumentException.class, () -> SortedStringIndex.of(new String[] {"a"}, 0));
+        SortedStringIndex empty = SortedStringIndex.of(new String[0]);
+        assertEquals(0, empty.lowerBound("x"));
+        assertEquals(-1, empty.indexOf("x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.get(0));
+    }
+}
@@ -0,0 +1,62 @@
+package test;
+
+import def.BinarySearchKernels;
+import def.StaticSortedIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticSortedIndexTest {
+
+    @Test
+    void testIntIndexMatchesSortedArray() {
+        Random random = new Random(5);
+        for (int n : new int[] {0, 1, 2, 3, 7, 8, 15, 16, 17, 100, 1023, 1024, 1025, 5000}) {
+            int[] sorted = new int[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = random.nextInt(n * 2 + 1) - n; // Duplicates and negatives
+            }
+            Arrays.sort(sorted);
+            StaticSortedIndex.OfInt index = StaticSortedIndex.of(sorted);
+            assertEquals(n, index.size());
+            for (int key = -n - 2; key <= n + 2; key++) {
+                int lower = BinarySearchKernels.lowerBound(sorted, key);
+                assertEquals(lower, index.lowerBound(key), "n=" + n + " key=" + key);
+                assertEquals(BinarySearchKernels.upperBound(sorted, key), index.upperBound(key));
+                boolean present = lower < n && sorted[lower] == key;
+                assertEquals(present ? lower : -1, index.indexOf(key));
+                assertEquals(present, index.contains(key));
+            }
+        }
+    }
+
+    @Test
+    void testLongIndexExtremes() {
+        long[] sorted = {Long.MIN_VALUE, -1, 0, 0, 0, 42, Long.MAX_VALUE};
+        StaticSortedIndex.OfLong index = StaticSortedIndex.of(sorted);
+        assertEquals(0, index.indexOf(Long.MIN_VALUE));
+        assertEquals(2, index.indexOf(0));
+        assertEquals(5, index.upperBound(0));
+        assertEquals(6, index.indexOf(Long.MAX_VALUE));
+        assertEquals(7, index.upperBound(Long.MAX_VALUE));
+        assertEquals(-1, index.indexOf(41));
+        assertEquals(5, index.lowerBound(41));
+    }
+
+    @Test
+    void testRejectsUnsortedInput() {
+        assertThrows(IllegalArgumentException.class, () -> StaticSortedIndex.of(new int[] {1, 3, 2}));
+        assertThrows(IllegalArgumentException.class, () -> StaticSortedIndex.of((long[]) null));
+    }
+
+    @Test
+    void testSourceArrayIsCopied() {
+        int[] sorted = {1, 2, 3};
+        StaticSortedIndex.OfInt index = StaticSortedIndex.of(sorted);
+        sorted[1] = 100;
+        assertTrue(index.contains(2));
+    }
+}